@@ -17,12 +17,12 @@
 
 package com.google.sps.api.authorization;
 
-import com.google.api.client.auth.oauth2.DataStoreCredentialRefreshListener;
+import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.extensions.appengine.datastore.AppEngineDataStoreFactory;
-import com.google.api.client.extensions.appengine.http.UrlFetchTransport;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
 import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.HttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.jackson2.JacksonFactory;
@@ -31,6 +31,9 @@ import com.google.api.services.calendar.CalendarScopes;
 import com.google.api.services.tasks.TasksScopes;
 import com.google.appengine.api.users.User;
 import com.google.appengine.api.users.UserServiceFactory;
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.api.http.ApiRequestInitializer;
+import com.google.sps.api.http.HttpTransports;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -40,9 +43,9 @@ import java.util.List;
 public class AuthorizationRequester {
 
   /**
-   * Global instance of the HTTP transport.
+   * Global instance of the HTTP transport, chosen by the system properties (see {@link HttpTransports}).
    */
-  public static final HttpTransport HTTP_TRANSPORT = new UrlFetchTransport();
+  public static final HttpTransport HTTP_TRANSPORT = HttpTransports.fromSystemProperties();
   /**
    * Global instance of the JSON factory.
    */
@@ -57,21 +60,32 @@ public class AuthorizationRequester {
    */
   private static final AppEngineDataStoreFactory DATA_STORE_FACTORY =
       AppEngineDataStoreFactory.getDefaultInstance();
-  private static GoogleClientSecrets clientSecrets = null;
+  /**
+   * Lazily initialized, and read without locking by the concurrent requests once initialized.
+   */
+  private static volatile GoogleClientSecrets clientSecrets = null;
+  private static volatile GoogleAuthorizationCodeFlow flow = null;
 
   /**
    * Loads the application's client secrets from the resources/client_secrets.json file
    */
   public static GoogleClientSecrets getClientCredential() throws IOException {
-    if (clientSecrets == null) {
-      try {
-        InputStreamReader inputStreamReader = new InputStreamReader(AuthorizationRequester.class.getResourceAsStream(CLIENT_SECRETS_PATH));
-        clientSecrets = GoogleClientSecrets.load(JSON_FACTORY, inputStreamReader);
-      } catch (NullPointerException exception) {
-        throw new IOException("Download client_secrets.json file from the Google Cloud Dashboard Credentials into /src/main/resources/client_secrets.json");
+    GoogleClientSecrets loadedClientSecrets = clientSecrets;
+    if (loadedClientSecrets == null) {
+      synchronized (AuthorizationRequester.class) {
+        loadedClientSecrets = clientSecrets;
+        if (loadedClientSecrets == null) {
+          try {
+            InputStreamReader inputStreamReader = new InputStreamReader(AuthorizationRequester.class.getResourceAsStream(CLIENT_SECRETS_PATH));
+            loadedClientSecrets = GoogleClientSecrets.load(JSON_FACTORY, inputStreamReader);
+          } catch (NullPointerException exception) {
+            throw new IOException("Download client_secrets.json file from the Google Cloud Dashboard Credentials into /src/main/resources/client_secrets.json");
+          }
+          clientSecrets = loadedClientSecrets;
+        }
       }
     }
-    return clientSecrets;
+    return loadedClientSecrets;
   }
 
   public static String getRedirectUri(HttpServletRequest req) {
@@ -81,15 +95,57 @@ public class AuthorizationRequester {
   }
 
   /**
-   * Gets a new OAuth2 authorization code flow for a request.
+   * Gets the OAuth2 authorization code flow shared by all the requests and users.
+   * The credentials it loads store their refreshed tokens in the data store of their user,
+   * and are removed from the {@link AuthorizedClientsCache} when their refresh token is rejected.
+   */
+  public static GoogleAuthorizationCodeFlow getFlow() throws IOException {
+    GoogleAuthorizationCodeFlow builtFlow = flow;
+    if (builtFlow == null) {
+      synchronized (AuthorizationRequester.class) {
+        builtFlow = flow;
+        if (builtFlow == null) {
+          builtFlow = new GoogleAuthorizationCodeFlow.Builder(HTTP_TRANSPORT, JSON_FACTORY, getClientCredential(), ACCESS_SCOPES)
+              .setDataStoreFactory(DATA_STORE_FACTORY)
+              .setAccessType(ACCESS_TYPE)
+              .setApprovalPrompt(APPROVAL_PROMPT)
+              .addRefreshListener(new RevokedCredentialListener())
+              .build();
+          flow = builtFlow;
+        }
+      }
+    }
+    return builtFlow;
+  }
+
+  /**
+   * Returns the cached credential and API clients of the user.
+   */
+  public static AuthorizedClients getAuthorizedClients(String userId) throws IOException {
+    return AuthorizedClientsCache.getInstance().get(userId);
+  }
+
+  /**
+   * Returns the application's {@link DataStoreFactory}.
+   */
+  public static DataStoreFactory getDataStoreFactory() {
+    return DATA_STORE_FACTORY;
+  }
+
+  /**
+   * Returns the initializer of the API requests made on behalf of the user owning the credential,
+   * whose timeouts don't go past the deadline of the current request.
+   */
+  public static HttpRequestInitializer newRequestInitializer(Credential credential) {
+    return ApiRequestInitializer.fromSystemProperties(credential);
+  }
+
+  /**
+   * Returns the initializer of the API requests made on behalf of the user owning the credential,
+   * whose timeouts don't go past the deadline.
    */
-  public static GoogleAuthorizationCodeFlow newFlow() throws IOException {
-    return new GoogleAuthorizationCodeFlow.Builder(HTTP_TRANSPORT, JSON_FACTORY, getClientCredential(), ACCESS_SCOPES)
-        .setDataStoreFactory(DATA_STORE_FACTORY)
-        .setAccessType(ACCESS_TYPE)
-        .setApprovalPrompt(APPROVAL_PROMPT)
-        .addRefreshListener(new DataStoreCredentialRefreshListener(getUserId(), DATA_STORE_FACTORY))
-        .build();
+  public static HttpRequestInitializer newRequestInitializer(Credential credential, Deadline deadline) {
+    return ApiRequestInitializer.fromSystemProperties(credential, deadline);
   }
 
   /**
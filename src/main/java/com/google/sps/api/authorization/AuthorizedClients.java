@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.sps.api.authorization;
+
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.tasks.Tasks;
+
+/**
+ * Credential of a user and the API clients acting on the user's behalf.
+ * The clients are thread-safe and bound their calls to the deadline of the current request,
+ * so they can be shared by all the requests of the user.
+ */
+public class AuthorizedClients {
+  private final Credential credential;
+  private final Tasks tasksClient;
+  private final Calendar calendarClient;
+
+  public AuthorizedClients(Credential credential, Tasks tasksClient, Calendar calendarClient) {
+    this.credential = credential;
+    this.tasksClient = tasksClient;
+    this.calendarClient = calendarClient;
+  }
+
+  /**
+   * Builds the API clients of the credential, which can be null if the user never authorized the app.
+   */
+  public static AuthorizedClients build(Credential credential) {
+    Tasks tasksClient = new Tasks.Builder(
+        AuthorizationRequester.HTTP_TRANSPORT,
+        AuthorizationRequester.JSON_FACTORY,
+        AuthorizationRequester.newRequestInitializer(credential)).build();
+    Calendar calendarClient = new Calendar.Builder(
+        AuthorizationRequester.HTTP_TRANSPORT,
+        AuthorizationRequester.JSON_FACTORY,
+        AuthorizationRequester.newRequestInitializer(credential)).build();
+    return new AuthorizedClients(credential, tasksClient, calendarClient);
+  }
+
+  public Credential getCredential() {
+    return credential;
+  }
+
+  public Tasks getTasksClient() {
+    return tasksClient;
+  }
+
+  public Calendar getCalendarClient() {
+    return calendarClient;
+  }
+}
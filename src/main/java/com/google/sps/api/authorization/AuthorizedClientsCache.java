@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.sps.api.authorization;
+
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * In-memory LRU cache of the users' credentials and API clients, which saves loading the credential
+ * from the data store and building the clients on every request.
+ * The access tokens of the cached users are refreshed by a push task before they expire, and the cached
+ * credentials take the refreshed token from the data store.
+ */
+public class AuthorizedClientsCache {
+  public static final int MAX_USERS = 1000;
+  /**
+   * Time after which the credential of an inactive user is loaded from the data store again.
+   */
+  public static final long EXPIRATION_MINUTES = 30;
+  private static final AuthorizedClientsCache INSTANCE = new AuthorizedClientsCache(
+      userId -> AuthorizationRequester.getFlow().loadCredential(userId), AuthorizedClients::build,
+      TokenRefresher.getInstance());
+
+  private final CredentialLoader credentialLoader;
+  private final Function<Credential, AuthorizedClients> clientsFactory;
+  private final TokenRefresher tokenRefresher;
+  private final Cache<String, AuthorizedClients> clients = CacheBuilder.newBuilder()
+      .maximumSize(MAX_USERS)
+      .expireAfterAccess(EXPIRATION_MINUTES, TimeUnit.MINUTES)
+      .build();
+
+  /**
+   * Loads the stored credential of a user.
+   */
+  public interface CredentialLoader {
+    /**
+     * Returns the credential, or null if the user never authorized the app.
+     */
+    Credential load(String userId) throws IOException;
+  }
+
+  AuthorizedClientsCache(CredentialLoader credentialLoader, Function<Credential, AuthorizedClients> clientsFactory,
+      TokenRefresher tokenRefresher) {
+    this.credentialLoader = credentialLoader;
+    this.clientsFactory = clientsFactory;
+    this.tokenRefresher = tokenRefresher;
+  }
+
+  public static AuthorizedClientsCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the cached clients of the user, loading the credential if they are not cached.
+   * Users without a stored credential get clients that are not cached.
+   * While the cached access token expires soon, the stored credential is read again to take the token
+   * refreshed by the push task, and the refresh is enqueued until it is.
+   */
+  public AuthorizedClients get(String userId) throws IOException {
+    AuthorizedClients userClients = clients.getIfPresent(userId);
+    if (userClients == null) {
+      Credential credential = credentialLoader.load(userId);
+      userClients = clientsFactory.apply(credential);
+      if (credential == null) {
+        return userClients;
+      }
+      // Concurrent loads of the same user store equivalent clients, the last one is kept
+      clients.put(userId, userClients);
+    } else if (TokenRefresher.isExpiringSoon(userClients.getCredential())) {
+      takeStoredToken(userId, userClients.getCredential());
+    }
+    tokenRefresher.refreshIfExpiringSoon(userId, userClients.getCredential());
+    return userClients;
+  }
+
+  /**
+   * Sets the stored access token in the cached credential if it is newer.
+   */
+  private void takeStoredToken(String userId, Credential cachedCredential) throws IOException {
+    Credential storedCredential = credentialLoader.load(userId);
+    Long storedExpiration = storedCredential == null ? null : storedCredential.getExpirationTimeMilliseconds();
+    if (storedExpiration != null && storedExpiration > cachedCredential.getExpirationTimeMilliseconds()) {
+      cachedCredential.setAccessToken(storedCredential.getAccessToken());
+      cachedCredential.setExpirationTimeMilliseconds(storedExpiration);
+    }
+  }
+
+  /**
+   * Removes the user's clients, e.g. when the user authorized the app again.
+   */
+  public void invalidate(String userId) {
+    clients.invalidate(userId);
+  }
+
+  /**
+   * Removes the clients using the credential.
+   */
+  public void invalidate(Credential credential) {
+    clients.asMap().values().removeIf(userClients -> userClients.getCredential() == credential);
+  }
+}
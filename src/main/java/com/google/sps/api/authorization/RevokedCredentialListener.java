@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.sps.api.authorization;
+
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.auth.oauth2.CredentialRefreshListener;
+import com.google.api.client.auth.oauth2.TokenErrorResponse;
+import com.google.api.client.auth.oauth2.TokenResponse;
+
+/**
+ * Removes a credential from the {@link AuthorizedClientsCache} when its refresh token is rejected,
+ * e.g. because the user revoked the access, so that the next request loads the stored one again.
+ * Refreshed tokens are updated in the cached credential itself.
+ */
+public class RevokedCredentialListener implements CredentialRefreshListener {
+
+  @Override
+  public void onTokenResponse(Credential credential, TokenResponse tokenResponse) {
+  }
+
+  @Override
+  public void onTokenErrorResponse(Credential credential, TokenErrorResponse tokenErrorResponse) {
+    AuthorizedClientsCache.getInstance().invalidate(credential);
+  }
+}
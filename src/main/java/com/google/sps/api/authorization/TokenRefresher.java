@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.sps.api.authorization;
+
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.TaskAlreadyExistsException;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.BaseEncoding;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Refreshes the access tokens of the active users a few minutes before they expire, so that their API calls
+ * never find an expired token. The request that finds a token expiring soon only enqueues its refresh in the
+ * token-refresh push queue, declared in queue.xml, and goes on with the current token, still valid for a few
+ * minutes. The token request and the data store write of the new token run in the task request to
+ * {@link #REFRESH_PATH}, with its own deadline and environment.
+ * The task is named after the user and the expiration of the token it replaces, so that each token
+ * is refreshed once even if several requests or instances enqueue it.
+ */
+public class TokenRefresher {
+  /**
+   * Tokens expiring in less than this are refreshed.
+   */
+  public static final long REFRESH_MARGIN_SECONDS = TimeUnit.MINUTES.toSeconds(5);
+  public static final String QUEUE_NAME = "token-refresh";
+  public static final String REFRESH_PATH = "/admin/tokens/refresh";
+  public static final String USER_ID_KEY = "userId";
+  private static final TokenRefresher INSTANCE = new TokenRefresher(QueueFactory.getQueue(QUEUE_NAME));
+  private static final Logger logger = Logger.getLogger(TokenRefresher.class.getName());
+
+  private final Queue queue;
+  /**
+   * Expiration of the token whose refresh this instance enqueued, by user id, which saves adding
+   * the same task on every request until it runs.
+   */
+  private final Cache<String, Long> enqueuedExpirations = CacheBuilder.newBuilder()
+      .maximumSize(AuthorizedClientsCache.MAX_USERS)
+      .expireAfterWrite(REFRESH_MARGIN_SECONDS, TimeUnit.SECONDS)
+      .build();
+
+  /**
+   * @param queue push queue whose requests refresh the tokens
+   */
+  TokenRefresher(Queue queue) {
+    this.queue = queue;
+  }
+
+  public static TokenRefresher getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns whether the access token of the credential expires within the refresh margin.
+   */
+  public static boolean isExpiringSoon(Credential credential) {
+    Long expiresInSeconds = credential.getExpiresInSeconds();
+    return credential.getRefreshToken() != null && expiresInSeconds != null
+        && expiresInSeconds <= REFRESH_MARGIN_SECONDS;
+  }
+
+  /**
+   * Enqueues the refresh of the access token if it expires soon, and returns without waiting for it.
+   * A refresh that could not be enqueued is only logged, since the current token is still valid:
+   * the next request enqueues it again.
+   */
+  public void refreshIfExpiringSoon(String userId, Credential credential) {
+    if (!isExpiringSoon(credential)) {
+      return;
+    }
+    Long expiration = credential.getExpirationTimeMilliseconds();
+    if (expiration.equals(enqueuedExpirations.asMap().put(userId, expiration))) {
+      return;
+    }
+    try {
+      queue.add(TaskOptions.Builder.withUrl(REFRESH_PATH)
+          .param(USER_ID_KEY, userId)
+          .taskName(getTaskName(userId, expiration)));
+    } catch (TaskAlreadyExistsException exception) {
+      // Another request or instance enqueued the refresh of this token
+    } catch (RuntimeException exception) {
+      enqueuedExpirations.asMap().remove(userId, expiration);
+      logger.log(Level.WARNING, "Could not enqueue the refresh of the access token", exception);
+    }
+  }
+
+  /**
+   * Refreshes the access token on the current request if it expires soon.
+   * The new token is stored by the refresh listener of the credential.
+   *
+   * @return whether the token was refreshed
+   * @throws IOException if the token server could not be reached
+   */
+  public boolean refreshNowIfExpiringSoon(Credential credential) throws IOException {
+    return isExpiringSoon(credential) && credential.refreshToken();
+  }
+
+  /**
+   * Returns the name of the task refreshing the token of the user with the expiration.
+   * The user id is encoded, since task names only allow letters, digits, '-' and '_'.
+   */
+  static String getTaskName(String userId, long expiration) {
+    return "token-" + BaseEncoding.base16().encode(userId.getBytes(StandardCharsets.UTF_8)) + "-" + expiration;
+  }
+}
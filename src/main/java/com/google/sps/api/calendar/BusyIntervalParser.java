@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.sps.api.calendar;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.api.client.util.DateTime;
+import com.google.sps.data.BusyInterval;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses an events.list response while it is being read, keeping only the intervals of the events
+ * that pass the same filters as {@link CalendarClientHelper#isAttending}, {@link CalendarClientHelper#isBusy}
+ * and {@link CalendarClientHelper#isDateTimeSet}.
+ * The other properties of the events are skipped without being allocated.
+ */
+public class BusyIntervalParser {
+  public static final String CANCELLED_STATUS = "cancelled";
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  /**
+   * A page of an events.list response.
+   */
+  public static class Page {
+    private final List<BusyInterval> busyIntervals;
+    private final Map<String, BusyInterval> changes;
+    private final String nextPageToken;
+    private final String nextSyncToken;
+
+    public Page(List<BusyInterval> busyIntervals, Map<String, BusyInterval> changes,
+        String nextPageToken, String nextSyncToken) {
+      this.busyIntervals = busyIntervals;
+      this.changes = changes;
+      this.nextPageToken = nextPageToken;
+      this.nextSyncToken = nextSyncToken;
+    }
+
+    public List<BusyInterval> getBusyIntervals() {
+      return busyIntervals;
+    }
+
+    /**
+     * Returns the busy interval of each event having an id, or null if the event
+     * does not block time (anymore), for instance because it was cancelled.
+     */
+    public Map<String, BusyInterval> getChanges() {
+      return changes;
+    }
+
+    /**
+     * Returns the token for the next incremental sync, only set on the last page.
+     */
+    public String getNextSyncToken() {
+      return nextSyncToken;
+    }
+
+    /**
+     * Returns the token of the next page, or null if this is the last page.
+     */
+    public String getNextPageToken() {
+      return nextPageToken;
+    }
+  }
+
+  /**
+   * Parses the content of an events.list response.
+   */
+  public static Page parse(InputStream content) throws IOException {
+    List<BusyInterval> busyIntervals = new ArrayList<>();
+    Map<String, BusyInterval> changes = new LinkedHashMap<>();
+    String nextPageToken = null;
+    String nextSyncToken = null;
+
+    try (JsonParser parser = JSON_FACTORY.createParser(content)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("The events response is not a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+        switch (field) {
+          case "items":
+            parseItems(parser, busyIntervals, changes);
+            break;
+          case "nextPageToken":
+            nextPageToken = parser.getValueAsString();
+            break;
+          case "nextSyncToken":
+            nextSyncToken = parser.getValueAsString();
+            break;
+          default:
+            parser.skipChildren();
+        }
+      }
+    }
+    return new Page(busyIntervals, changes, nextPageToken, nextSyncToken);
+  }
+
+  private static void parseItems(JsonParser parser, List<BusyInterval> busyIntervals,
+      Map<String, BusyInterval> changes) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      parseEvent(parser, busyIntervals, changes);
+    }
+  }
+
+  /**
+   * Adds the interval blocked by the event to the busy intervals, if the event blocks time,
+   * and records it as a change if the event has an id.
+   */
+  private static void parseEvent(JsonParser parser, List<BusyInterval> busyIntervals,
+      Map<String, BusyInterval> changes) throws IOException {
+    String id = null;
+    String start = null;
+    String end = null;
+    boolean busy = true;
+    boolean attending = true;
+    boolean cancelled = false;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case "id":
+          id = parser.getValueAsString();
+          break;
+        case "status":
+          cancelled = CANCELLED_STATUS.equals(parser.getValueAsString());
+          break;
+        case "start":
+          start = parseDateTime(parser);
+          break;
+        case "end":
+          end = parseDateTime(parser);
+          break;
+        case "transparency":
+          String transparency = parser.getValueAsString();
+          busy = transparency == null || transparency.equals(CalendarClientHelper.BUSY_TRANSPARENCY);
+          break;
+        case "attendees":
+          attending = parseAttending(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+
+    BusyInterval busyInterval = null;
+    if (attending && busy && !cancelled && start != null && end != null) {
+      busyInterval = new BusyInterval(DateTime.parseRfc3339(start).getValue(), DateTime.parseRfc3339(end).getValue());
+      busyIntervals.add(busyInterval);
+    }
+    if (id != null) {
+      changes.put(id, busyInterval);
+    }
+  }
+
+  /**
+   * Returns the dateTime property of an EventDateTime, or null if it is an all-day date.
+   */
+  private static String parseDateTime(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return null;
+    }
+    String dateTime = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      if (field.equals("dateTime")) {
+        dateTime = parser.getValueAsString();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return dateTime;
+  }
+
+  /**
+   * Returns whether the user accepted the event, with the same rules as {@link CalendarClientHelper#isAttending}.
+   */
+  private static boolean parseAttending(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return parser.currentToken() == JsonToken.VALUE_NULL;
+    }
+    boolean attending = false;
+    boolean selfFound = false;
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      boolean self = false;
+      String responseStatus = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+        if (field.equals("self")) {
+          self = parser.getValueAsBoolean();
+        } else if (field.equals("responseStatus")) {
+          responseStatus = parser.getValueAsString();
+        } else {
+          parser.skipChildren();
+        }
+      }
+      if (self && !selfFound) {
+        selfFound = true;
+        attending = CalendarClientHelper.ACCEPTED.equals(responseStatus);
+      }
+    }
+    return attending;
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.sps.api.calendar;
+
+import com.google.api.client.util.DateTime;
+import java.io.IOException;
+
+/**
+ * Source of the changes of a calendar's busy intervals, used to keep them in sync.
+ */
+public interface BusyIntervalSource {
+
+  /**
+   * Returns the busy intervals changed since the sync token, with the token for the next sync.
+   * If the sync token is null, all the events in the timerange are returned (full sync).
+   * An HttpResponseException with status 410 is thrown when the sync token is no longer valid.
+   */
+  BusyIntervalParser.Page listChanges(String syncToken, DateTime timeMin, DateTime timeMax) throws IOException;
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.sps.api.calendar;
+
+import com.google.sps.data.BusyInterval;
+import java.util.List;
+
+/**
+ * Listener notified when the synced busy intervals of a user's calendar change, so that the data
+ * derived from them can be invalidated. Tasks that were already scheduled are not moved.
+ * Listeners are called outside the user's lock, possibly concurrently.
+ */
+public interface CalendarChangeListener {
+
+  /**
+   * @param userId user whose calendar changed
+   * @param changedIntervals intervals that were added or removed, which span the affected days
+   */
+  void onBusyIntervalsChanged(String userId, List<BusyInterval> changedIntervals);
+}
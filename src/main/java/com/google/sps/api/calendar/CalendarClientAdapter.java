@@ -17,36 +17,105 @@
 package com.google.sps.api.calendar;
 
 import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.http.HttpResponse;
 import com.google.api.client.util.DateTime;
 import com.google.api.services.calendar.Calendar;
 import com.google.api.services.calendar.model.CalendarListEntry;
+import com.google.api.services.calendar.model.Channel;
 import com.google.api.services.calendar.model.Event;
 import com.google.api.services.calendar.model.Events;
 import com.google.appengine.api.users.UserServiceFactory;
 import com.google.sps.api.authorization.AuthorizationRequester;
+import com.google.sps.api.concurrent.ApiExecutors;
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.api.concurrent.SingleFlight;
+import com.google.sps.api.hedging.HedgedRequestExecutor;
+import com.google.sps.data.BusyInterval;
 import java.io.IOException;
-import java.io.Serializable;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
-public class CalendarClientAdapter implements Serializable {
+public class CalendarClientAdapter implements BusyIntervalSource {
   public static final String PRIMARY_CALENDAR_FLAG = "primary";
   // Default timezone
   public static final String CET_TIME_ZONE = "Europe/Zurich";
-  private Calendar calendarClient;
+  private static final HedgedRequestExecutor LIST_EVENTS_HEDGING = HedgedRequestExecutor.fromSystemProperties();
+  /**
+   * Partial response containing only the properties needed to compute the busy intervals.
+   */
+  private static final String BUSY_INTERVALS_FIELDS =
+      "nextPageToken,items(start/dateTime,end/dateTime,transparency,attendees(self,responseStatus))";
+  /**
+   * Partial response of a sync, which also needs the events' ids and status to apply the changes.
+   */
+  private static final String BUSY_INTERVALS_SYNC_FIELDS = "nextPageToken,nextSyncToken,"
+      + "items(id,status,start/dateTime,end/dateTime,transparency,attendees(self,responseStatus))";
+  public static final String WEB_HOOK_CHANNEL_TYPE = "web_hook";
+  /**
+   * Concurrent reads of the same resource by the same user share one call.
+   */
+  private static final SingleFlight<String, String> TIME_ZONE_FLIGHTS = new SingleFlight<>();
+  private static final SingleFlight<String, List<BusyInterval>> BUSY_INTERVALS_FLIGHTS = new SingleFlight<>();
+  private final String userId;
+  private final Calendar calendarClient;
+  /**
+   * Executor running the asynchronous variants of the methods.
+   */
+  private final Executor executor;
 
 
   /**
    * Upon instantiation creates Calendar instance (calendarClient)
    */
   public CalendarClientAdapter() throws IOException {
-    String userId = UserServiceFactory.getUserService().getCurrentUser().getUserId();
-    Credential credential = AuthorizationRequester.newFlow().loadCredential(userId);
-    calendarClient = new Calendar.Builder(AuthorizationRequester.HTTP_TRANSPORT, AuthorizationRequester.JSON_FACTORY, credential).build();
+    this(ApiExecutors.getCalendarExecutor());
+  }
+
+  /**
+   * @param executor executor running the asynchronous variants of the methods
+   */
+  public CalendarClientAdapter(Executor executor) throws IOException {
+    this(UserServiceFactory.getUserService().getCurrentUser().getUserId(), executor);
+  }
+
+  /**
+   * @param executor executor running the asynchronous variants of the methods
+   * @param deadline deadline bounding the timeout of every call, instead of the one of the current request
+   */
+  public CalendarClientAdapter(Executor executor, Deadline deadline) throws IOException {
+    this(UserServiceFactory.getUserService().getCurrentUser().getUserId(), executor, deadline);
+  }
+
+  /**
+   * Creates the Calendar instance of the given user, who doesn't have to be the logged in user.
+   */
+  public CalendarClientAdapter(String userId, Executor executor) throws IOException {
+    this.userId = userId;
+    this.executor = executor;
+    calendarClient = AuthorizationRequester.getAuthorizedClients(userId).getCalendarClient();
+  }
+
+  /**
+   * Creates the Calendar instance of the given user, whose calls don't go past the deadline.
+   */
+  public CalendarClientAdapter(String userId, Executor executor, Deadline deadline) throws IOException {
+    this.userId = userId;
+    this.executor = executor;
+    Credential credential = AuthorizationRequester.getAuthorizedClients(userId).getCredential();
+    calendarClient = new Calendar.Builder(
+        AuthorizationRequester.HTTP_TRANSPORT,
+        AuthorizationRequester.JSON_FACTORY,
+        AuthorizationRequester.newRequestInitializer(credential, deadline)).build();
   }
 
   /**
@@ -63,6 +132,14 @@ public class CalendarClientAdapter implements Serializable {
     return timeZone;
   }
 
+  /**
+   * Asynchronous variant of {@link #getPrimaryCalendarTimeZone()}, sharing the call in flight for the user.
+   */
+  public CompletableFuture<String> getPrimaryCalendarTimeZoneAsync() {
+    return TIME_ZONE_FLIGHTS.execute(userId,
+        () -> ApiExecutors.supplyAsync(this::getPrimaryCalendarTimeZone, executor));
+  }
+
   public Calendar getCalendarClient() throws IOException {
     return calendarClient;
   }
@@ -83,9 +160,17 @@ public class CalendarClientAdapter implements Serializable {
    * Returns ZoneDateTime corresponding to the next days 00:00 time point in user's timezone
    */
   public ZonedDateTime getUsersTomorrowStart() {
-    ZoneId userZoneId = ZoneId.of(getPrimaryCalendarTimeZone());
-    LocalDate tomorrowHere = LocalDate.now(userZoneId).plus(1, ChronoUnit.DAYS);
-    return tomorrowHere.atStartOfDay(userZoneId);
+    return getTomorrowStart(getPrimaryCalendarTimeZone());
+  }
+
+  /**
+   * Returns ZoneDateTime corresponding to the next days 00:00 time point in the given timezone,
+   * for callers that already fetched the user's timezone.
+   */
+  public static ZonedDateTime getTomorrowStart(String timeZone) {
+    ZoneId zoneId = ZoneId.of(timeZone);
+    LocalDate tomorrowHere = LocalDate.now(zoneId).plus(1, ChronoUnit.DAYS);
+    return tomorrowHere.atStartOfDay(zoneId);
   }
 
 
@@ -96,11 +181,11 @@ public class CalendarClientAdapter implements Serializable {
    */
   public List<Event> getAcceptedEventsInTimerange(DateTime startTime, DateTime endTime) throws IOException {
 
-    Events events = calendarClient.events().list(PRIMARY_CALENDAR_FLAG)
+    Events events = LIST_EVENTS_HEDGING.execute(() -> calendarClient.events().list(PRIMARY_CALENDAR_FLAG)
         .setSingleEvents(true) // Handle recurring events as separate single events
         .setTimeMin(startTime)
         .setTimeMax(endTime)
-        .execute();
+        .execute());
     return events.getItems().stream()
         .filter((event) -> CalendarClientHelper.isAttending(event))
         .filter((event) -> CalendarClientHelper.isBusy(event))
@@ -108,6 +193,107 @@ public class CalendarClientAdapter implements Serializable {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Asynchronous variant of {@link #getAcceptedEventsInTimerange(DateTime, DateTime)}.
+   */
+  public CompletableFuture<List<Event>> getAcceptedEventsInTimerangeAsync(DateTime startTime, DateTime endTime) {
+    return ApiExecutors.supplyAsync(() -> getAcceptedEventsInTimerange(startTime, endTime), executor);
+  }
+
+  /**
+   * Returns the intervals blocked by the user's primary calendar's events in the given timerange.
+   * The events are filtered as in {@link #getAcceptedEventsInTimerange(DateTime, DateTime)}, but while
+   * the response is being parsed, so that only the start and end of the busy events are kept in memory.
+   */
+  public List<BusyInterval> getBusyIntervalsInTimerange(DateTime startTime, DateTime endTime) throws IOException {
+    List<BusyInterval> busyIntervals = new ArrayList<>();
+    String pageToken = null;
+    do {
+      String currentPageToken = pageToken;
+      BusyIntervalParser.Page page = LIST_EVENTS_HEDGING.execute(
+          () -> listBusyIntervals(startTime, endTime, currentPageToken));
+      busyIntervals.addAll(page.getBusyIntervals());
+      pageToken = page.getNextPageToken();
+    } while (pageToken != null);
+    return busyIntervals;
+  }
+
+  /**
+   * Asynchronous variant of {@link #getBusyIntervalsInTimerange(DateTime, DateTime)}, sharing the call
+   * in flight for the user and the range. The returned list must not be modified.
+   */
+  public CompletableFuture<List<BusyInterval>> getBusyIntervalsInTimerangeAsync(DateTime startTime, DateTime endTime) {
+    return BUSY_INTERVALS_FLIGHTS.execute(userId + "/" + startTime.getValue() + "/" + endTime.getValue(),
+        () -> ApiExecutors.supplyAsync(() -> getBusyIntervalsInTimerange(startTime, endTime), executor));
+  }
+
+  /**
+   * Requests a page of events and parses it as a stream.
+   */
+  private BusyIntervalParser.Page listBusyIntervals(DateTime startTime, DateTime endTime, String pageToken)
+      throws IOException {
+    return parseEvents(calendarClient.events().list(PRIMARY_CALENDAR_FLAG)
+        .setSingleEvents(true) // Handle recurring events as separate single events
+        .setTimeMin(startTime)
+        .setTimeMax(endTime)
+        .setPageToken(pageToken)
+        .setFields(BUSY_INTERVALS_FIELDS));
+  }
+
+  @Override
+  public BusyIntervalParser.Page listChanges(String syncToken, DateTime timeMin, DateTime timeMax) throws IOException {
+    List<BusyInterval> busyIntervals = new ArrayList<>();
+    Map<String, BusyInterval> changes = new LinkedHashMap<>();
+    String pageToken = null;
+    BusyIntervalParser.Page page;
+    do {
+      Calendar.Events.List request = calendarClient.events().list(PRIMARY_CALENDAR_FLAG)
+          .setSingleEvents(true)
+          .setPageToken(pageToken)
+          .setFields(BUSY_INTERVALS_SYNC_FIELDS);
+      if (syncToken == null) {
+        request.setTimeMin(timeMin).setTimeMax(timeMax);
+      } else {
+        // The timerange of the full sync is kept by the sync token, and cannot be specified again
+        request.setSyncToken(syncToken).setShowDeleted(true);
+      }
+      page = parseEvents(request);
+      busyIntervals.addAll(page.getBusyIntervals());
+      changes.putAll(page.getChanges());
+      pageToken = page.getNextPageToken();
+    } while (pageToken != null);
+    return new BusyIntervalParser.Page(busyIntervals, changes, null, page.getNextSyncToken());
+  }
+
+  private static BusyIntervalParser.Page parseEvents(Calendar.Events.List request) throws IOException {
+    HttpResponse response = request.executeUnparsed();
+    try (InputStream content = response.getContent()) {
+      return BusyIntervalParser.parse(content);
+    } finally {
+      response.disconnect();
+    }
+  }
+
+  /**
+   * Watches the changes to the events of the primary calendar, which are notified to the address.
+   * The token is sent back with each notification.
+   */
+  public Channel watchPrimaryCalendar(String channelId, String address, String token) throws IOException {
+    Channel channel = new Channel()
+        .setId(channelId)
+        .setType(WEB_HOOK_CHANNEL_TYPE)
+        .setAddress(address)
+        .setToken(token);
+    return calendarClient.events().watch(PRIMARY_CALENDAR_FLAG, channel).execute();
+  }
+
+  /**
+   * Stops the notifications of the channel watching the resource.
+   */
+  public void stopChannel(String channelId, String resourceId) throws IOException {
+    calendarClient.channels().stop(new Channel().setId(channelId).setResourceId(resourceId)).execute();
+  }
+
   /**
    * Inserts the event in the primary calendar.
    */
@@ -115,6 +301,13 @@ public class CalendarClientAdapter implements Serializable {
     calendarClient.events().insert(PRIMARY_CALENDAR_FLAG, event).execute();
   }
 
+  /**
+   * Asynchronous variant of {@link #insertEventToPrimary(Event)}.
+   */
+  public CompletableFuture<Void> insertEventToPrimaryAsync(Event event) {
+    return ApiExecutors.runAsync(() -> insertEventToPrimary(event), executor);
+  }
+
   /**
    * Inserts the events in the primary calendar.
    */
@@ -123,4 +316,15 @@ public class CalendarClientAdapter implements Serializable {
       insertEventToPrimary(event);
     }
   }
+
+  /**
+   * Inserts the events in the primary calendar concurrently.
+   * The future fails if any of the insertions fails.
+   */
+  public CompletableFuture<Void> insertEventsToPrimaryAsync(List<Event> events) {
+    return ApiExecutors.allAsList(events.stream()
+        .map(this::insertEventToPrimaryAsync)
+        .collect(Collectors.toList()))
+        .thenApply(ignored -> null);
+  }
 }
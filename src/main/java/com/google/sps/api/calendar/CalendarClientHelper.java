@@ -20,10 +20,9 @@ import com.google.api.client.util.DateTime;
 import com.google.api.services.calendar.model.Event;
 import com.google.api.services.calendar.model.EventAttendee;
 import com.google.api.services.calendar.model.EventDateTime;
-import java.io.Serializable;
 import java.util.List;
 
-public class CalendarClientHelper implements Serializable {
+public class CalendarClientHelper {
 
   public static final String ACCEPTED = "accepted";
   public static final String BUSY_TRANSPARENCY = "opaque";
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.sps.api.calendar;
+
+import com.google.api.client.googleapis.notifications.StoredChannel;
+import com.google.api.client.googleapis.notifications.UnparsedNotification;
+import com.google.api.client.googleapis.notifications.UnparsedNotificationCallback;
+import com.google.sps.api.concurrent.ApiExecutors;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Callback of the push notifications of a user's primary calendar,
+ * which syncs the changed events into the {@link CalendarSyncCache}.
+ */
+public class CalendarNotificationCallback implements UnparsedNotificationCallback {
+  /**
+   * Resource state of the first notification of a channel, sent when it is created.
+   */
+  public static final String SYNC_STATE = "sync";
+
+  private final String userId;
+
+  public CalendarNotificationCallback(String userId) {
+    this.userId = userId;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  @Override
+  public void onNotification(StoredChannel storedChannel, UnparsedNotification notification) throws IOException {
+    if (!Objects.equals(storedChannel.getClientToken(), notification.getChannelToken())) {
+      // Not sent by the Calendar API for this channel
+      return;
+    }
+    if (SYNC_STATE.equals(notification.getResourceState())) {
+      return;
+    }
+    CalendarSyncCache cache = getCache();
+    if (!cache.isSynced(userId)) {
+      // Nothing is cached on this instance, the next read does a full sync
+      return;
+    }
+    cache.sync(userId, newBusyIntervalSource());
+  }
+
+  CalendarSyncCache getCache() {
+    return CalendarSyncCache.getInstance();
+  }
+
+  BusyIntervalSource newBusyIntervalSource() throws IOException {
+    return new CalendarClientAdapter(userId, ApiExecutors.getCalendarExecutor());
+  }
+}
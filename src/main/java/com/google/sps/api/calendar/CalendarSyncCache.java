@@ -0,0 +1,257 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.sps.api.calendar;
+
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.util.DateTime;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.sps.data.BusyInterval;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory cache of the busy intervals of the users' primary calendars, kept up to date with
+ * incremental syncs (sync tokens) instead of full fetches.
+ * A sync is triggered by a push notification of the calendar, or when the cached intervals are
+ * older than {@value #MAX_STALENESS_MINUTES_PROPERTY} minutes, since a notification only reaches
+ * one instance.
+ */
+public class CalendarSyncCache {
+  public static final String MAX_STALENESS_MINUTES_PROPERTY = "sps.calendar.cache.maxStalenessMinutes";
+  public static final int DEFAULT_MAX_STALENESS_MINUTES = 10;
+  public static final int MAX_USERS = 1000;
+  /**
+   * Days before and after the full sync that are cached.
+   */
+  public static final int WINDOW_PAST_DAYS = 1;
+  public static final int WINDOW_FUTURE_DAYS = 62;
+  private static final int GONE_STATUS_CODE = 410;
+  private static final CalendarSyncCache INSTANCE = new CalendarSyncCache(
+      Clock.systemUTC(),
+      TimeUnit.MINUTES.toMillis(Integer.getInteger(MAX_STALENESS_MINUTES_PROPERTY, DEFAULT_MAX_STALENESS_MINUTES)));
+
+  private final Clock clock;
+  private final long maxStalenessMillis;
+  private final Cache<String, SyncedCalendar> calendars = CacheBuilder.newBuilder()
+      .maximumSize(MAX_USERS)
+      .build();
+  private final List<CalendarChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Busy intervals of a user, by event id. Access must be synchronized on the instance,
+   * which is never held during a call to the source.
+   */
+  private static class SyncedCalendar {
+    private final Map<String, BusyInterval> busyIntervalsById = new HashMap<>();
+    private String syncToken;
+    private long windowStart;
+    private long windowEnd;
+    private long lastSync;
+  }
+
+  CalendarSyncCache(Clock clock, long maxStalenessMillis) {
+    this.clock = clock;
+    this.maxStalenessMillis = maxStalenessMillis;
+  }
+
+  public static CalendarSyncCache getInstance() {
+    return INSTANCE;
+  }
+
+  public void addListener(CalendarChangeListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Returns whether the user's calendar was synced on this instance.
+   */
+  public boolean isSynced(String userId) {
+    SyncedCalendar calendar = calendars.getIfPresent(userId);
+    if (calendar == null) {
+      return false;
+    }
+    synchronized (calendar) {
+      return calendar.syncToken != null;
+    }
+  }
+
+  /**
+   * Returns the busy intervals overlapping the timerange, syncing them from the source first
+   * if they were never synced or are stale.
+   * Returns null if the timerange is not inside the cached window.
+   */
+  public List<BusyInterval> getBusyIntervals(String userId, long start, long end, BusyIntervalSource source)
+      throws IOException {
+    SyncedCalendar calendar = getCalendar(userId);
+    boolean syncNeeded;
+    synchronized (calendar) {
+      syncNeeded = calendar.syncToken == null || clock.millis() - calendar.lastSync > maxStalenessMillis;
+    }
+    if (syncNeeded) {
+      sync(userId, calendar, source);
+    }
+    synchronized (calendar) {
+      if (start < calendar.windowStart || end > calendar.windowEnd) {
+        return null;
+      }
+      return calendar.busyIntervalsById.values().stream()
+          .filter(interval -> interval.getEnd() > start && interval.getStart() < end)
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Applies the changes of the user's calendar since the last sync,
+   * or fetches the whole window if it was never synced.
+   */
+  public void sync(String userId, BusyIntervalSource source) throws IOException {
+    sync(userId, getCalendar(userId), source);
+  }
+
+  /**
+   * Makes the next read of the user's busy intervals sync them first, e.g. after inserting events.
+   */
+  public void markStale(String userId) {
+    SyncedCalendar calendar = calendars.getIfPresent(userId);
+    if (calendar != null) {
+      synchronized (calendar) {
+        calendar.lastSync = 0;
+      }
+    }
+  }
+
+  /**
+   * Removes the user's busy intervals, e.g. when the authorization is revoked.
+   */
+  public void invalidate(String userId) {
+    calendars.invalidate(userId);
+  }
+
+  private SyncedCalendar getCalendar(String userId) {
+    try {
+      return calendars.get(userId, SyncedCalendar::new);
+    } catch (ExecutionException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  /**
+   * Fetches the changes since the sync token read under the lock, then applies them under the lock,
+   * so that the other requests of the user don't wait for the fetch. If another sync applied its changes
+   * in the meantime, the fetched page may be older than them and is dropped, and the sync starts again
+   * from the new token.
+   */
+  private void sync(String userId, SyncedCalendar calendar, BusyIntervalSource source) throws IOException {
+    while (true) {
+      String syncToken;
+      synchronized (calendar) {
+        syncToken = calendar.syncToken;
+      }
+      BusyIntervalParser.Page changes = syncToken == null ? null : listChanges(syncToken, source);
+      boolean fullSync = changes == null;
+      long windowStart = 0;
+      long windowEnd = 0;
+      if (fullSync) {
+        // Never synced or the sync token expired: the whole window is fetched
+        long now = clock.millis();
+        windowStart = now - TimeUnit.DAYS.toMillis(WINDOW_PAST_DAYS);
+        windowEnd = now + TimeUnit.DAYS.toMillis(WINDOW_FUTURE_DAYS);
+        changes = source.listChanges(null, new DateTime(windowStart), new DateTime(windowEnd));
+      }
+
+      List<BusyInterval> changedIntervals;
+      synchronized (calendar) {
+        if (!Objects.equals(calendar.syncToken, syncToken)) {
+          continue;
+        }
+        if (!fullSync) {
+          changedIntervals = applyChanges(calendar, changes);
+        } else {
+          changedIntervals = new ArrayList<>(calendar.busyIntervalsById.values());
+          calendar.busyIntervalsById.clear();
+          calendar.windowStart = windowStart;
+          calendar.windowEnd = windowEnd;
+          applyChanges(calendar, changes);
+          changedIntervals.addAll(calendar.busyIntervalsById.values());
+        }
+      }
+      notifyListeners(userId, changedIntervals);
+      return;
+    }
+  }
+
+  /**
+   * Returns the changes since the sync token, or null if the token expired and a full sync is needed.
+   */
+  private static BusyIntervalParser.Page listChanges(String syncToken, BusyIntervalSource source)
+      throws IOException {
+    try {
+      return source.listChanges(syncToken, null, null);
+    } catch (HttpResponseException exception) {
+      if (exception.getStatusCode() != GONE_STATUS_CODE) {
+        throw exception;
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Applies the changed events to the cached intervals.
+   *
+   * @return intervals that were added or removed
+   */
+  private List<BusyInterval> applyChanges(SyncedCalendar calendar, BusyIntervalParser.Page changes) {
+    List<BusyInterval> changedIntervals = new ArrayList<>();
+    for (Map.Entry<String, BusyInterval> change : changes.getChanges().entrySet()) {
+      BusyInterval previous;
+      if (change.getValue() == null) {
+        previous = calendar.busyIntervalsById.remove(change.getKey());
+      } else {
+        previous = calendar.busyIntervalsById.put(change.getKey(), change.getValue());
+      }
+      if (!Objects.equals(previous, change.getValue())) {
+        if (previous != null) {
+          changedIntervals.add(previous);
+        }
+        if (change.getValue() != null) {
+          changedIntervals.add(change.getValue());
+        }
+      }
+    }
+    calendar.syncToken = changes.getNextSyncToken();
+    calendar.lastSync = clock.millis();
+    return changedIntervals;
+  }
+
+  private void notifyListeners(String userId, List<BusyInterval> changedIntervals) {
+    if (changedIntervals.isEmpty()) {
+      return;
+    }
+    for (CalendarChangeListener listener : listeners) {
+      listener.onBusyIntervalsChanged(userId, changedIntervals);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.sps.api.calendar;
+
+import com.google.api.client.googleapis.notifications.StoredChannel;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.util.store.DataStore;
+import com.google.api.client.util.store.DataStoreFactory;
+import com.google.api.services.calendar.model.Channel;
+import com.google.sps.api.authorization.AuthorizationRequester;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Registers and renews the push notification channels of the users' primary calendars.
+ */
+public class CalendarWatcher {
+  private static final Logger logger = Logger.getLogger(CalendarWatcher.class.getName());
+  public static final String ENABLED_PROPERTY = "sps.calendar.push.enabled";
+  public static final String NOTIFICATIONS_PATH = "/notifications/calendar";
+  public static final String CHANNEL_IDS_DATA_STORE_ID = "CalendarChannelIds";
+  /**
+   * Channels expiring sooner than this are renewed.
+   */
+  public static final long RENEWAL_MARGIN_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  private final DataStore<String> channelIdsByUser;
+  private final DataStore<StoredChannel> channels;
+
+  public CalendarWatcher(DataStoreFactory dataStoreFactory) throws IOException {
+    channelIdsByUser = dataStoreFactory.getDataStore(CHANNEL_IDS_DATA_STORE_ID);
+    channels = StoredChannel.getDefaultDataStore(dataStoreFactory);
+  }
+
+  public static boolean isEnabled() {
+    return Boolean.getBoolean(ENABLED_PROPERTY);
+  }
+
+  public static CalendarWatcher getDefault() throws IOException {
+    return new CalendarWatcher(AuthorizationRequester.getDataStoreFactory());
+  }
+
+  /**
+   * Returns the URL of the notifications servlet on the host serving the request.
+   * Notifications are only delivered to HTTPS URLs of verified domains.
+   */
+  public static String getNotificationsAddress(HttpServletRequest req) {
+    GenericUrl url = new GenericUrl(req.getRequestURL().toString());
+    url.setRawPath(NOTIFICATIONS_PATH);
+    return url.build();
+  }
+
+  /**
+   * Makes sure the user's primary calendar has an unexpired notification channel.
+   *
+   * @param address HTTPS URL receiving the notifications
+   */
+  public void ensureWatching(String userId, CalendarClientAdapter calendarClientAdapter, String address)
+      throws IOException {
+    String channelId = channelIdsByUser.get(userId);
+    StoredChannel storedChannel = channelId == null ? null : channels.get(channelId);
+    if (storedChannel != null && storedChannel.getExpiration() != null
+        && storedChannel.getExpiration() > System.currentTimeMillis() + RENEWAL_MARGIN_MILLIS) {
+      return;
+    }
+
+    String newChannelId = UUID.randomUUID().toString();
+    String token = UUID.randomUUID().toString();
+    Channel channel = calendarClientAdapter.watchPrimaryCalendar(newChannelId, address, token);
+    new StoredChannel(new CalendarNotificationCallback(userId), newChannelId)
+        .setClientToken(token)
+        .setExpiration(channel.getExpiration())
+        .setTopicId(channel.getResourceId())
+        .store(channels);
+    channelIdsByUser.set(userId, newChannelId);
+    if (storedChannel != null) {
+      try {
+        calendarClientAdapter.stopChannel(storedChannel.getId(), storedChannel.getTopicId());
+      } catch (IOException exception) {
+        // The notifications of the old channel are then ignored until it expires
+        logger.log(Level.WARNING, "Could not stop the calendar channel " + storedChannel.getId(), exception);
+      }
+      channels.delete(storedChannel.getId());
+    }
+  }
+}
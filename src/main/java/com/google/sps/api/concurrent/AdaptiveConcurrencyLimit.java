@@ -0,0 +1,160 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.api.concurrent;
+
+/**
+ * Limit on the concurrent requests of one endpoint, adapted to the latency they observe: while the
+ * latency stays near its long term average, the limit grows; when requests queue up and the latency
+ * rises, it shrinks in proportion. Requests over the limit are rejected instead of adding to the queue.
+ * Its bounds are set with the sps.admission.initialLimit, minLimit and maxLimit system properties.
+ */
+public class AdaptiveConcurrencyLimit {
+  public static final int DEFAULT_INITIAL_LIMIT = 10;
+  public static final int DEFAULT_MIN_LIMIT = 1;
+  public static final int DEFAULT_MAX_LIMIT = 80;
+  /**
+   * Weights of a new sample in the averages of the recent latency and of the long term latency.
+   */
+  private static final double SHORT_WEIGHT = 0.1;
+  private static final double LONG_WEIGHT = 0.01;
+  /**
+   * Ratio of the long term latency a recent latency can reach before the limit shrinks.
+   */
+  private static final double TOLERANCE = 1.5;
+  /**
+   * Weight of the new limit computed from a sample against the current one, which smooths out the noise.
+   */
+  private static final double SMOOTHING = 0.2;
+  /**
+   * Shrinking of the limit when a request times out.
+   */
+  private static final double BACKOFF_RATIO = 0.9;
+  private final String name;
+  private final int minLimit;
+  private final int maxLimit;
+  private double limit;
+  private int inFlight = 0;
+  private double shortLatency = 0;
+  private double longLatency = 0;
+  private long rejectedCount = 0;
+
+  /**
+   * @param name name of the endpoint
+   * @param initialLimit limit until enough requests were observed
+   * @param minLimit concurrent requests always allowed
+   * @param maxLimit concurrent requests never exceeded
+   */
+  public AdaptiveConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit) {
+    if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("The limits must satisfy 0 < minLimit <= initialLimit <= maxLimit");
+    }
+    this.name = name;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = initialLimit;
+  }
+
+  /**
+   * Returns a limit bounded by the system properties.
+   */
+  public static AdaptiveConcurrencyLimit fromSystemProperties(String name) {
+    return new AdaptiveConcurrencyLimit(name,
+        Integer.getInteger("sps.admission.initialLimit", DEFAULT_INITIAL_LIMIT),
+        Integer.getInteger("sps.admission.minLimit", DEFAULT_MIN_LIMIT),
+        Integer.getInteger("sps.admission.maxLimit", DEFAULT_MAX_LIMIT));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Admits a request if the limit allows it. An admitted request must call one of the release methods
+   * once it completes.
+   */
+  public synchronized boolean tryAcquire() {
+    if (inFlight >= getLimit()) {
+      rejectedCount++;
+      return false;
+    }
+    inFlight++;
+    return true;
+  }
+
+  /**
+   * Releases a request that completed, and adapts the limit to its latency.
+   */
+  public synchronized void release(long latencyInMilliseconds) {
+    int inFlightWithRequest = inFlight--;
+    double latency = Math.max(latencyInMilliseconds, 1);
+    if (longLatency == 0) {
+      shortLatency = latency;
+      longLatency = latency;
+    }
+    shortLatency += (latency - shortLatency) * SHORT_WEIGHT;
+    longLatency += (latency - longLatency) * LONG_WEIGHT;
+    // After a lasting slowdown, the long term latency would take long to come back down
+    if (longLatency > 2 * shortLatency) {
+      longLatency = 2 * shortLatency;
+    }
+    // With few requests in flight the latency doesn't depend on the limit, which then mustn't grow forever
+    if (inFlightWithRequest < limit / 2) {
+      return;
+    }
+    double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longLatency / shortLatency));
+    // The square root leaves room for a few more requests than the latency allows, to find out if it's still true
+    double newLimit = limit * gradient + Math.sqrt(limit);
+    setLimit(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+  }
+
+  /**
+   * Releases a request that timed out, which means the requests are already queued for too long.
+   */
+  public synchronized void releaseDropped() {
+    inFlight--;
+    setLimit(limit * BACKOFF_RATIO);
+  }
+
+  /**
+   * Releases a request whose latency says nothing about the load, such as one that failed early.
+   */
+  public synchronized void releaseIgnored() {
+    inFlight--;
+  }
+
+  private void setLimit(double newLimit) {
+    limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+  }
+
+  /**
+   * Returns the number of concurrent requests currently allowed.
+   */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * Returns the number of admitted requests that are not completed.
+   */
+  public synchronized int getInFlightCount() {
+    return inFlight;
+  }
+
+  /**
+   * Returns the number of requests rejected since the limit was created.
+   */
+  public synchronized long getRejectedCount() {
+    return rejectedCount;
+  }
+}
@@ -0,0 +1,183 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.concurrent;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Provides the executor running the asynchronous API calls, and helpers to run
+ * blocking API calls as CompletableFutures.
+ * The size of the default executor is set with the {@value #THREADS_PROPERTY} system property.
+ */
+public class ApiExecutors {
+  public static final String THREADS_PROPERTY = "sps.api.threads";
+  public static final int DEFAULT_THREADS = 20;
+  private static final Executor DEFAULT_EXECUTOR = new RequestContextExecutor(
+      Executors.newFixedThreadPool(
+          Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS),
+          new ThreadFactoryBuilder().setNameFormat("api-call-%d").setDaemon(true).build()));
+
+  /**
+   * Bulkheads of the downstream APIs, so that a slow API does not hold the threads of the other.
+   */
+  private static final Bulkhead TASKS_BULKHEAD = Bulkhead.fromSystemProperties("tasks");
+  private static final Bulkhead CALENDAR_BULKHEAD = Bulkhead.fromSystemProperties("calendar");
+
+  /**
+   * Returns the executor shared by the asynchronous calls not bound to a single API.
+   */
+  public static Executor getDefaultExecutor() {
+    return DEFAULT_EXECUTOR;
+  }
+
+  /**
+   * Returns the executor of the Tasks API calls.
+   */
+  public static Executor getTasksExecutor() {
+    return TASKS_BULKHEAD.getExecutor();
+  }
+
+  /**
+   * Returns the executor of the Calendar API calls.
+   */
+  public static Executor getCalendarExecutor() {
+    return CALENDAR_BULKHEAD.getExecutor();
+  }
+
+  /**
+   * Returns the bulkheads of the downstream APIs, to report their metrics.
+   */
+  public static List<Bulkhead> getBulkheads() {
+    return Arrays.asList(TASKS_BULKHEAD, CALENDAR_BULKHEAD);
+  }
+
+  /**
+   * Runs the supplier on the executor. If the supplier throws an IOException,
+   * the future completes exceptionally with it.
+   * If the executor rejects the supplier, the future completes exceptionally with an IOException.
+   */
+  public static <T> CompletableFuture<T> supplyAsync(IOSupplier<T> supplier, Executor executor) {
+    try {
+      return CompletableFuture.supplyAsync(() -> {
+        try {
+          return supplier.get();
+        } catch (IOException exception) {
+          throw new CompletionException(exception);
+        }
+      }, executor);
+    } catch (RejectedExecutionException exception) {
+      CompletableFuture<T> rejectedFuture = new CompletableFuture<>();
+      rejectedFuture.completeExceptionally(new IOException(exception.getMessage(), exception));
+      return rejectedFuture;
+    }
+  }
+
+  /**
+   * Runs the action on the executor. If the action throws an IOException,
+   * the future completes exceptionally with it.
+   */
+  public static CompletableFuture<Void> runAsync(IORunnable action, Executor executor) {
+    return supplyAsync(() -> {
+      action.run();
+      return null;
+    }, executor);
+  }
+
+  /**
+   * Returns a future completed with the results of all the futures, in the same order.
+   * It completes only once every future is done: if some of them failed, it then completes
+   * exceptionally with one of their failures.
+   */
+  public static <T> CompletableFuture<List<T>> allAsList(List<CompletableFuture<T>> futures) {
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(ignored -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+  }
+
+  /**
+   * Waits for the future and returns its result. The IOException that made it fail is rethrown.
+   */
+  public static <T> T await(CompletableFuture<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the API call");
+    } catch (ExecutionException exception) {
+      throw asIOException(exception.getCause());
+    }
+  }
+
+  /**
+   * Waits for the future until the deadline and returns its result.
+   *
+   * @throws DeadlineExceededException if the future is not completed by the deadline
+   */
+  public static <T> T await(CompletableFuture<T> future, Deadline deadline) throws IOException {
+    long remainingMillis = deadline.getRemainingMillis();
+    if (remainingMillis == Long.MAX_VALUE) {
+      return await(future);
+    }
+    try {
+      return future.get(Math.max(remainingMillis, 0), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the API call");
+    } catch (ExecutionException exception) {
+      throw asIOException(exception.getCause());
+    } catch (TimeoutException exception) {
+      throw new DeadlineExceededException();
+    }
+  }
+
+  /**
+   * Returns the IOException wrapped by the throwable, rethrowing unchecked exceptions.
+   */
+  public static IOException asIOException(Throwable throwable) {
+    Throwable cause = throwable;
+    while (cause instanceof CompletionException || cause instanceof ExecutionException) {
+      if (cause.getCause() == null) {
+        break;
+      }
+      cause = cause.getCause();
+    }
+    if (cause instanceof IOException) {
+      return (IOException) cause;
+    }
+    if (cause instanceof UncheckedIOException) {
+      return ((UncheckedIOException) cause).getCause();
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new IOException(cause);
+  }
+}
@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.api.concurrent;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded executor dedicated to the calls of one downstream API, so that a slow API only
+ * uses up its own threads and queue. When both are full, new calls are rejected.
+ * Its size is set with the sps.NAME.threads and sps.NAME.queueCapacity system properties.
+ */
+public class Bulkhead {
+  public static final int DEFAULT_THREADS = 10;
+  public static final int DEFAULT_QUEUE_CAPACITY = 100;
+  private final String name;
+  private final ThreadPoolExecutor threadPool;
+  private final Executor executor;
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  /**
+   * @param name name of the downstream API
+   * @param threads maximum number of concurrent calls
+   * @param queueCapacity maximum number of calls waiting for a thread
+   */
+  public Bulkhead(String name, int threads, int queueCapacity) {
+    this.name = name;
+    threadPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        new ThreadFactoryBuilder().setNameFormat(name + "-call-%d").setDaemon(true).build(),
+        (runnable, pool) -> {
+          rejectedCount.incrementAndGet();
+          throw new BulkheadFullException(name);
+        });
+    executor = new RequestContextExecutor(threadPool);
+  }
+
+  /**
+   * Returns a bulkhead sized by the system properties of the API.
+   */
+  public static Bulkhead fromSystemProperties(String name) {
+    return new Bulkhead(name,
+        Integer.getInteger("sps." + name + ".threads", DEFAULT_THREADS),
+        Integer.getInteger("sps." + name + ".queueCapacity", DEFAULT_QUEUE_CAPACITY));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the executor running the calls of the API.
+   */
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Returns the number of calls waiting for a thread.
+   */
+  public int getQueueDepth() {
+    return threadPool.getQueue().size();
+  }
+
+  /**
+   * Returns the number of calls being executed.
+   */
+  public int getActiveCount() {
+    return threadPool.getActiveCount();
+  }
+
+  /**
+   * Returns the number of calls rejected since the start of the instance.
+   */
+  public long getRejectedCount() {
+    return rejectedCount.get();
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.api.concurrent;
+
+import com.google.apphosting.api.ApiProxy;
+import java.time.Clock;
+
+/**
+ * Point in time by which a request must be completed, passed along the calls made for the request
+ * so that each of them only uses the time that is left.
+ */
+public class Deadline {
+  /**
+   * Time kept to send the response once the deadline of the request has passed.
+   */
+  public static final long RESPONSE_MARGIN_MILLIS = 2000;
+  private static final Deadline NONE = new Deadline(Clock.systemUTC(), Long.MAX_VALUE);
+  private final Clock clock;
+  private final long expiration;
+
+  Deadline(Clock clock, long expiration) {
+    this.clock = clock;
+    this.expiration = expiration;
+  }
+
+  /**
+   * Returns a deadline that never expires.
+   */
+  public static Deadline none() {
+    return NONE;
+  }
+
+  /**
+   * Returns a deadline expiring after the given time.
+   */
+  public static Deadline after(long millis) {
+    return after(millis, Clock.systemUTC());
+  }
+
+  static Deadline after(long millis, Clock clock) {
+    return new Deadline(clock, clock.millis() + millis);
+  }
+
+  /**
+   * Returns the deadline of the current App Engine request, less the time needed to send the response.
+   * Outside of a request there is no deadline.
+   */
+  public static Deadline ofCurrentRequest() {
+    ApiProxy.Environment environment = ApiProxy.getCurrentEnvironment();
+    if (environment == null) {
+      return none();
+    }
+    return after(environment.getRemainingMillis() - RESPONSE_MARGIN_MILLIS);
+  }
+
+  /**
+   * Returns a deadline expiring the given time before this one.
+   */
+  public Deadline minus(long millis) {
+    if (expiration == Long.MAX_VALUE) {
+      return this;
+    }
+    return new Deadline(clock, expiration - millis);
+  }
+
+  public long getRemainingMillis() {
+    if (expiration == Long.MAX_VALUE) {
+      return Long.MAX_VALUE;
+    }
+    return expiration - clock.millis();
+  }
+
+  public boolean isExpired() {
+    return getRemainingMillis() <= 0;
+  }
+
+  /**
+   * Returns whether there is at least the given time left.
+   */
+  public boolean hasTimeFor(long millis) {
+    return getRemainingMillis() >= millis;
+  }
+
+  /**
+   * Returns the timeout of a call, which is the given timeout unless less time is left.
+   *
+   * @throws DeadlineExceededException if the deadline has already passed
+   */
+  public int getTimeout(int timeout) throws DeadlineExceededException {
+    long remainingMillis = getRemainingMillis();
+    if (remainingMillis <= 0) {
+      throw new DeadlineExceededException();
+    }
+    return (int) Math.min(timeout, remainingMillis);
+  }
+}
@@ -0,0 +1,55 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.concurrent;
+
+import com.google.apphosting.api.ApiProxy;
+import java.util.concurrent.Executor;
+
+/**
+ * Executor that runs each task with the App Engine environment of the thread submitting it.
+ * App Engine APIs (URL Fetch, Datastore, Users) can only be called from a thread bound to a
+ * request, so tasks run on a plain worker thread borrow the submitting request's environment.
+ */
+public class RequestContextExecutor implements Executor {
+  private final Executor delegate;
+
+  public RequestContextExecutor(Executor delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    ApiProxy.Environment environment = ApiProxy.getCurrentEnvironment();
+    delegate.execute(() -> runWithEnvironment(environment, task));
+  }
+
+  private static void runWithEnvironment(ApiProxy.Environment environment, Runnable task) {
+    ApiProxy.Environment previous = ApiProxy.getCurrentEnvironment();
+    if (environment == null || environment == previous) {
+      task.run();
+      return;
+    }
+    ApiProxy.setEnvironmentForCurrentThread(environment);
+    try {
+      task.run();
+    } finally {
+      if (previous == null) {
+        ApiProxy.clearEnvironmentForCurrentThread();
+      } else {
+        ApiProxy.setEnvironmentForCurrentThread(previous);
+      }
+    }
+  }
+}
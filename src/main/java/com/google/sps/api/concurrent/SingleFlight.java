@@ -0,0 +1,68 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shares one in-flight call among the concurrent callers asking for the same key: the first caller
+ * starts the call, and the callers arriving while it is in flight get its result too.
+ * Nothing is cached: once the call completes, the next caller starts a new one.
+ * The result is shared by all the callers of the flight, so they must not modify it. Each caller gets
+ * its own future depending on the flight, so cancelling or completing it doesn't affect the other callers.
+ */
+public class SingleFlight<K, V> {
+  private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the call in flight for the key, or starts it with the supplier.
+   */
+  public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> flightInProgress = flights.putIfAbsent(key, flight);
+    if (flightInProgress != null) {
+      return flightInProgress.thenApply(Function.identity());
+    }
+    CompletableFuture<V> callFuture;
+    try {
+      callFuture = call.get();
+    } catch (RuntimeException exception) {
+      flights.remove(key, flight);
+      flight.completeExceptionally(exception);
+      return flight.thenApply(Function.identity());
+    }
+    callFuture.whenComplete((result, exception) -> {
+      // Removed first, so that a caller arriving after the result starts a new call
+      flights.remove(key, flight);
+      if (exception != null) {
+        flight.completeExceptionally(exception);
+      } else {
+        flight.complete(result);
+      }
+    });
+    return flight.thenApply(Function.identity());
+  }
+
+  /**
+   * Returns the number of calls in flight.
+   */
+  public int getInFlightCount() {
+    return flights.size();
+  }
+}
@@ -0,0 +1,52 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.hedging;
+
+/**
+ * Token bucket limiting the number of hedged requests to a fraction of the total requests.
+ * Every request earns a fraction of a token, and every hedge spends a whole token.
+ */
+public class HedgeBudget {
+  private final double tokensPerRequest;
+  private final double maxTokens;
+  private double tokens = 0;
+
+  /**
+   * @param hedgeRatio maximum number of hedges per request (e.g. 0.05 for 5% extra requests)
+   * @param maxTokens maximum number of hedges that can be saved up for a burst of slow requests
+   */
+  public HedgeBudget(double hedgeRatio, double maxTokens) {
+    this.tokensPerRequest = hedgeRatio;
+    this.maxTokens = maxTokens;
+  }
+
+  /**
+   * Credits the budget for a request being sent.
+   */
+  public synchronized void onRequest() {
+    tokens = Math.min(maxTokens, tokens + tokensPerRequest);
+  }
+
+  /**
+   * Spends a token for a hedge and returns true, or returns false if the budget is exhausted.
+   */
+  public synchronized boolean tryAcquire() {
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+}
@@ -0,0 +1,184 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.hedging;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.sps.api.concurrent.RequestContextExecutor;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes idempotent read requests, sending a duplicate (hedged) request when the first one
+ * has not answered within an adaptive threshold, and returning whichever response arrives first.
+ * The threshold is a percentile of the recent latencies, and the number of hedges is limited by
+ * a {@link HedgeBudget}.
+ * Hedging is disabled unless the {@value #ENABLED_PROPERTY} system property is set to true.
+ */
+public class HedgedRequestExecutor {
+  public static final String ENABLED_PROPERTY = "sps.hedging.enabled";
+  public static final double DEFAULT_PERCENTILE = 0.95;
+  public static final double DEFAULT_HEDGE_RATIO = 0.05;
+  public static final double DEFAULT_MAX_BURST = 10;
+  public static final int DEFAULT_WINDOW_SIZE = 200;
+  /**
+   * Minimum number of samples needed before the percentile is trusted for hedging.
+   */
+  public static final int DEFAULT_MIN_SAMPLES = 20;
+  private static final Executor SHARED_EXECUTOR = new RequestContextExecutor(
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder().setNameFormat("hedged-request-%d").setDaemon(true).build()));
+
+  private final Executor executor;
+  private final LatencyTracker latencyTracker;
+  private final HedgeBudget hedgeBudget;
+  private final double percentile;
+  private final int minSamples;
+  private final boolean enabled;
+
+  public HedgedRequestExecutor(Executor executor, LatencyTracker latencyTracker, HedgeBudget hedgeBudget,
+      double percentile, int minSamples, boolean enabled) {
+    this.executor = executor;
+    this.latencyTracker = latencyTracker;
+    this.hedgeBudget = hedgeBudget;
+    this.percentile = percentile;
+    this.minSamples = minSamples;
+    this.enabled = enabled;
+  }
+
+  /**
+   * Returns an executor with the default settings, enabled according to the system properties.
+   * Each kind of request should have its own executor, so that latencies are not mixed.
+   */
+  public static HedgedRequestExecutor fromSystemProperties() {
+    return new HedgedRequestExecutor(
+        SHARED_EXECUTOR,
+        new LatencyTracker(DEFAULT_WINDOW_SIZE),
+        new HedgeBudget(DEFAULT_HEDGE_RATIO, DEFAULT_MAX_BURST),
+        DEFAULT_PERCENTILE,
+        DEFAULT_MIN_SAMPLES,
+        Boolean.getBoolean(ENABLED_PROPERTY));
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Executes the request, hedging it if it is too slow.
+   * The request is called once per attempt, so it must build a new request each time.
+   */
+  public <T> T execute(Callable<T> request) throws IOException {
+    if (!enabled) {
+      return call(request);
+    }
+    hedgeBudget.onRequest();
+
+    CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+    List<Future<T>> attempts = new ArrayList<>();
+    try {
+      attempts.add(completionService.submit(timed(request)));
+      Future<T> completed = null;
+      long threshold = getHedgingThreshold();
+      if (threshold >= 0) {
+        completed = completionService.poll(threshold, TimeUnit.MILLISECONDS);
+        if (completed == null && hedgeBudget.tryAcquire()) {
+          attempts.add(completionService.submit(timed(request)));
+        }
+      }
+
+      ExecutionException failure = null;
+      for (int pending = attempts.size(); pending > 0; pending--) {
+        if (completed == null) {
+          completed = completionService.take();
+        }
+        try {
+          return completed.get();
+        } catch (ExecutionException exception) {
+          // Wait for the other attempt, if any, before giving up
+          failure = exception;
+          completed = null;
+        }
+      }
+      throw unwrap(failure);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the response");
+    } finally {
+      for (Future<T> attempt : attempts) {
+        attempt.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Returns the time to wait before hedging, or -1 if there are not enough samples yet.
+   */
+  long getHedgingThreshold() {
+    if (latencyTracker.getSampleCount() < minSamples) {
+      return -1;
+    }
+    return latencyTracker.getPercentile(percentile);
+  }
+
+  /**
+   * Wraps the request so that the latency of each attempt is recorded, whatever its outcome.
+   * A slow attempt that loses to its hedge and is cancelled records the time it ran, as a lower bound,
+   * so that the threshold doesn't drift down to the latencies of the winners only.
+   */
+  private <T> Callable<T> timed(Callable<T> request) {
+    return () -> {
+      long start = System.nanoTime();
+      try {
+        return request.call();
+      } finally {
+        latencyTracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      }
+    };
+  }
+
+  private <T> T call(Callable<T> request) throws IOException {
+    try {
+      return request.call();
+    } catch (IOException | RuntimeException exception) {
+      throw exception;
+    } catch (Exception exception) {
+      throw new IOException(exception);
+    }
+  }
+
+  private static IOException unwrap(ExecutionException exception) {
+    Throwable cause = exception.getCause();
+    if (cause instanceof IOException) {
+      return (IOException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new IOException(cause);
+  }
+}
@@ -0,0 +1,70 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.hedging;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latencies of the most recent requests in a fixed-size window and
+ * provides percentiles over them.
+ */
+public class LatencyTracker {
+  private final long[] window;
+  private int next = 0;
+  private int size = 0;
+
+  /**
+   * @param windowSize number of most recent samples taken into account
+   */
+  public LatencyTracker(int windowSize) {
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("windowSize must be positive");
+    }
+    window = new long[windowSize];
+  }
+
+  /**
+   * Records the latency of a completed request.
+   */
+  public synchronized void record(long latencyInMilliseconds) {
+    window[next] = latencyInMilliseconds;
+    next = (next + 1) % window.length;
+    size = Math.min(size + 1, window.length);
+  }
+
+  /**
+   * Returns the number of samples currently in the window.
+   */
+  public synchronized int getSampleCount() {
+    return size;
+  }
+
+  /**
+   * Returns the given percentile (between 0 and 1) of the recorded latencies,
+   * or -1 if no latency was recorded yet.
+   */
+  public long getPercentile(double percentile) {
+    long[] samples;
+    synchronized (this) {
+      if (size == 0) {
+        return -1;
+      }
+      samples = Arrays.copyOf(window, size);
+    }
+    Arrays.sort(samples);
+    int index = (int) Math.ceil(percentile * samples.length) - 1;
+    return samples[Math.max(0, Math.min(index, samples.length - 1))];
+  }
+}
@@ -0,0 +1,83 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.http;
+
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.sps.api.concurrent.Deadline;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Initializes every API request with explicit timeouts, after the wrapped initializer
+ * (usually the user's credential) has been applied.
+ * The timeouts are shortened to the time left before the deadline, by default the deadline of the
+ * App Engine request making the call, so that a shared client serves every request.
+ */
+public class ApiRequestInitializer implements HttpRequestInitializer {
+  private final HttpRequestInitializer delegate;
+  private final int connectTimeout;
+  private final int readTimeout;
+  private final Supplier<Deadline> deadlineSupplier;
+
+  /**
+   * @param delegate initializer applied first
+   * @param connectTimeout connect timeout in milliseconds
+   * @param readTimeout read timeout in milliseconds
+   */
+  public ApiRequestInitializer(HttpRequestInitializer delegate, int connectTimeout, int readTimeout) {
+    this(delegate, connectTimeout, readTimeout, Deadline::ofCurrentRequest);
+  }
+
+  /**
+   * @param delegate initializer applied first
+   * @param connectTimeout connect timeout in milliseconds
+   * @param readTimeout read timeout in milliseconds
+   * @param deadlineSupplier supplies the deadline of the request making each call
+   */
+  public ApiRequestInitializer(HttpRequestInitializer delegate, int connectTimeout, int readTimeout,
+      Supplier<Deadline> deadlineSupplier) {
+    this.delegate = delegate;
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+    this.deadlineSupplier = deadlineSupplier;
+  }
+
+  /**
+   * Returns an initializer with the timeouts configured by the system properties,
+   * bounded by the deadline of the current request.
+   */
+  public static ApiRequestInitializer fromSystemProperties(HttpRequestInitializer delegate) {
+    return new ApiRequestInitializer(delegate, HttpTransports.getConnectTimeout(), HttpTransports.getReadTimeout());
+  }
+
+  /**
+   * Returns an initializer with the timeouts configured by the system properties, bounded by the deadline.
+   */
+  public static ApiRequestInitializer fromSystemProperties(HttpRequestInitializer delegate, Deadline deadline) {
+    return new ApiRequestInitializer(
+        delegate, HttpTransports.getConnectTimeout(), HttpTransports.getReadTimeout(), () -> deadline);
+  }
+
+  @Override
+  public void initialize(HttpRequest request) throws IOException {
+    if (delegate != null) {
+      delegate.initialize(request);
+    }
+    Deadline deadline = deadlineSupplier.get();
+    request.setConnectTimeout(deadline.getTimeout(connectTimeout));
+    request.setReadTimeout(deadline.getTimeout(readTimeout));
+  }
+}
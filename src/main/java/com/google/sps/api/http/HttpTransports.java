@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.http;
+
+import com.google.api.client.extensions.appengine.http.UrlFetchTransport;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+/**
+ * Creates the HTTP transport used by the Google API clients.
+ * The transport is chosen with the {@value #TRANSPORT_PROPERTY} system property:
+ * <ul>
+ *   <li>{@value #APP_ENGINE_TRANSPORT} (default) uses App Engine URL Fetch</li>
+ *   <li>{@value #POOLED_TRANSPORT} uses a pool of keep-alive connections with a limit per host</li>
+ * </ul>
+ */
+public class HttpTransports {
+  public static final String TRANSPORT_PROPERTY = "sps.http.transport";
+  public static final String APP_ENGINE_TRANSPORT = "appengine";
+  public static final String POOLED_TRANSPORT = "pooled";
+  public static final String MAX_CONNECTIONS_PER_HOST_PROPERTY = "sps.http.maxConnectionsPerHost";
+  public static final String MAX_CONNECTIONS_PROPERTY = "sps.http.maxConnections";
+  public static final String CONNECT_TIMEOUT_PROPERTY = "sps.http.connectTimeoutMillis";
+  public static final String READ_TIMEOUT_PROPERTY = "sps.http.readTimeoutMillis";
+  public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+  public static final int DEFAULT_MAX_CONNECTIONS = 100;
+  public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(5);
+  public static final int DEFAULT_READ_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(20);
+  /**
+   * Time after which an idle pooled connection is checked before being reused.
+   */
+  private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = (int) TimeUnit.SECONDS.toMillis(10);
+  private static final long CONNECTION_TIME_TO_LIVE_SECONDS = TimeUnit.MINUTES.toSeconds(5);
+
+  /**
+   * Returns the transport configured by the system properties.
+   */
+  public static HttpTransport fromSystemProperties() {
+    String transport = System.getProperty(TRANSPORT_PROPERTY, APP_ENGINE_TRANSPORT);
+    switch (transport) {
+      case APP_ENGINE_TRANSPORT:
+        return newAppEngineTransport();
+      case POOLED_TRANSPORT:
+        return newPooledTransport(
+            Integer.getInteger(MAX_CONNECTIONS_PER_HOST_PROPERTY, DEFAULT_MAX_CONNECTIONS_PER_HOST),
+            Integer.getInteger(MAX_CONNECTIONS_PROPERTY, DEFAULT_MAX_CONNECTIONS),
+            getConnectTimeout(),
+            getReadTimeout());
+      default:
+        throw new IllegalArgumentException("Unknown HTTP transport: " + transport);
+    }
+  }
+
+  /**
+   * Returns a transport based on App Engine URL Fetch.
+   */
+  public static HttpTransport newAppEngineTransport() {
+    return new UrlFetchTransport();
+  }
+
+  /**
+   * Returns a transport that keeps the connections alive and reuses them across requests.
+   * Responses compressed with gzip are decompressed transparently.
+   */
+  public static HttpTransport newPooledTransport(
+      int maxConnectionsPerHost, int maxConnections, int connectTimeout, int readTimeout) {
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+        CONNECTION_TIME_TO_LIVE_SECONDS, TimeUnit.SECONDS);
+    connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+
+    RequestConfig requestConfig = RequestConfig.custom()
+        .setConnectTimeout(connectTimeout)
+        .setConnectionRequestTimeout(connectTimeout)
+        .setSocketTimeout(readTimeout)
+        .build();
+
+    return new ApacheHttpTransport(HttpClientBuilder.create()
+        .useSystemProperties()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .build());
+  }
+
+  /**
+   * Returns the connect timeout in milliseconds for the API requests.
+   */
+  public static int getConnectTimeout() {
+    return Integer.getInteger(CONNECT_TIMEOUT_PROPERTY, DEFAULT_CONNECT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Returns the read timeout in milliseconds for the API requests.
+   */
+  public static int getReadTimeout() {
+    return Integer.getInteger(READ_TIMEOUT_PROPERTY, DEFAULT_READ_TIMEOUT_MILLIS);
+  }
+}
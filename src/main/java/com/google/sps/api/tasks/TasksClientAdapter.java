@@ -22,9 +22,17 @@ import com.google.api.services.tasks.model.TaskList;
 import com.google.api.services.tasks.model.TaskLists;
 import com.google.appengine.api.users.UserServiceFactory;
 import com.google.sps.api.authorization.AuthorizationRequester;
+import com.google.sps.api.concurrent.ApiExecutors;
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.api.concurrent.SingleFlight;
+import com.google.sps.data.ListedTask;
+import com.google.sps.api.hedging.HedgedRequestExecutor;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 /**
  * Provides access to the Tasks API.
@@ -34,15 +42,57 @@ public class TasksClientAdapter {
    * Max results allowed by the API.
    */
   private final static int MAX_ALLOWED_RESULTS = 100;
+  /**
+   * Hedging of the read requests, one per kind of request so that their latencies are not mixed.
+   */
+  private final static HedgedRequestExecutor LIST_TASKS_HEDGING = HedgedRequestExecutor.fromSystemProperties();
+  private final static HedgedRequestExecutor GET_TASK_HEDGING = HedgedRequestExecutor.fromSystemProperties();
+  /**
+   * Concurrent reads of the same resource by the same user share one call.
+   */
+  private final static SingleFlight<String, List<TaskList>> TASKS_LISTS_FLIGHTS = new SingleFlight<>();
+  private final static SingleFlight<String, List<Task>> TASKS_FLIGHTS = new SingleFlight<>();
+  private final static SingleFlight<String, Task> TASK_FLIGHTS = new SingleFlight<>();
+  private final String userId;
   private final Tasks tasksClient;
+  /**
+   * Executor running the asynchronous variants of the methods.
+   */
+  private final Executor executor;
 
   public TasksClientAdapter() throws IOException {
-    String userId = UserServiceFactory.getUserService().getCurrentUser().getUserId();
-    Credential credential = AuthorizationRequester.newFlow().loadCredential(userId);
+    this(ApiExecutors.getTasksExecutor());
+  }
+
+  /**
+   * @param executor executor running the asynchronous variants of the methods
+   */
+  public TasksClientAdapter(Executor executor) throws IOException {
+    this.executor = executor;
+    userId = UserServiceFactory.getUserService().getCurrentUser().getUserId();
+    tasksClient = AuthorizationRequester.getAuthorizedClients(userId).getTasksClient();
+  }
+
+  /**
+   * @param executor executor running the asynchronous variants of the methods
+   * @param deadline deadline bounding the timeout of every call, instead of the one of the current request
+   */
+  public TasksClientAdapter(Executor executor, Deadline deadline) throws IOException {
+    this(UserServiceFactory.getUserService().getCurrentUser().getUserId(), executor, deadline);
+  }
+
+  /**
+   * Creates the Tasks instance of the given user, who doesn't have to be the logged in user,
+   * whose calls don't go past the deadline.
+   */
+  public TasksClientAdapter(String userId, Executor executor, Deadline deadline) throws IOException {
+    this.userId = userId;
+    this.executor = executor;
+    Credential credential = AuthorizationRequester.getAuthorizedClients(userId).getCredential();
     tasksClient = new Tasks(
         AuthorizationRequester.HTTP_TRANSPORT,
         AuthorizationRequester.JSON_FACTORY,
-        credential);
+        AuthorizationRequester.newRequestInitializer(credential, deadline));
   }
 
   /**
@@ -53,18 +103,36 @@ public class TasksClientAdapter {
     return tasksLists.getItems();
   }
 
+  /**
+   * Asynchronous variant of {@link #getTasksLists()}, sharing the call in flight for the user.
+   * The returned list must not be modified.
+   */
+  public CompletableFuture<List<TaskList>> getTasksListsAsync() {
+    return TASKS_LISTS_FLIGHTS.execute(userId, () -> ApiExecutors.supplyAsync(this::getTasksLists, executor));
+  }
+
   /**
    * Returns the tasks without a date or past their due date
    * belonging to the task list specified.
    */
   public List<Task> getTasks(String tasksListId) throws IOException {
-    List<Task> tasks = tasksClient.tasks().list(tasksListId).setMaxResults(MAX_ALLOWED_RESULTS).execute().getItems();
+    List<Task> tasks = LIST_TASKS_HEDGING.execute(
+        () -> tasksClient.tasks().list(tasksListId).setMaxResults(MAX_ALLOWED_RESULTS).execute()).getItems();
     if (tasks == null) {
       return Collections.emptyList();
     }
     return TasksClientHelper.filterTasks(tasks);
   }
 
+  /**
+   * Asynchronous variant of {@link #getTasks(String)}, sharing the call in flight for the user and the list.
+   * The returned list must not be modified.
+   */
+  public CompletableFuture<List<Task>> getTasksAsync(String tasksListId) {
+    return TASKS_FLIGHTS.execute(userId + "/" + tasksListId,
+        () -> ApiExecutors.supplyAsync(() -> getTasks(tasksListId), executor));
+  }
+
   /**
    * Returns the tasks belonging to the most recently updated task list.
    */
@@ -72,11 +140,59 @@ public class TasksClientAdapter {
     return getTasks(TasksClientHelper.getMostRecentTaskListId(getTasksLists()));
   }
 
+  /**
+   * Asynchronous variant of {@link #getTasksOfMostRecentList()}.
+   */
+  public CompletableFuture<List<Task>> getTasksOfMostRecentListAsync() {
+    return getTasksListsAsync()
+        .thenCompose(tasksLists -> getTasksAsync(TasksClientHelper.getMostRecentTaskListId(tasksLists)));
+  }
+
+  /**
+   * Returns the tasks of all the user's task lists, each tagged with the ID of its list.
+   * The task lists are loaded concurrently.
+   */
+  public List<ListedTask> getTasksOfAllLists() throws IOException {
+    return ApiExecutors.await(getTasksOfAllListsAsync());
+  }
+
+  /**
+   * Asynchronous variant of {@link #getTasksOfAllLists()}.
+   */
+  public CompletableFuture<List<ListedTask>> getTasksOfAllListsAsync() {
+    return getTasksListsAsync().thenCompose(this::getTasksOfListsAsync);
+  }
+
+  /**
+   * Returns the tasks of the given task lists, each tagged with the ID of its list.
+   * The task lists are loaded concurrently.
+   */
+  public CompletableFuture<List<ListedTask>> getTasksOfListsAsync(List<TaskList> tasksLists) {
+    return ApiExecutors.allAsList(
+        TasksClientHelper.getTaskListIds(tasksLists).stream()
+            .map(tasksListId -> getTasksAsync(tasksListId)
+                .thenApply(tasks -> TasksClientHelper.tagTasks(tasksListId, tasks)))
+            .collect(Collectors.toList()))
+        .thenApply(listedTasks -> listedTasks.stream()
+            .flatMap(List::stream)
+            .collect(Collectors.toList()));
+  }
+
   /**
    * Returns the specified task belonging to the task list specified.
    */
   public Task getTask(String tasksListId, String taskId) throws IOException {
-    return tasksClient.tasks().get(tasksListId, taskId).execute();
+    return GET_TASK_HEDGING.execute(() -> tasksClient.tasks().get(tasksListId, taskId).execute());
+  }
+
+  /**
+   * Asynchronous variant of {@link #getTask(String, String)}, sharing the call in flight for the user and the task.
+   * Each caller gets its own copy of the task, since the scheduling changes it.
+   */
+  public CompletableFuture<Task> getTaskAsync(String tasksListId, String taskId) {
+    return TASK_FLIGHTS.execute(userId + "/" + tasksListId + "/" + taskId,
+        () -> ApiExecutors.supplyAsync(() -> getTask(tasksListId, taskId), executor))
+        .thenApply(Task::clone);
   }
 
   /**
@@ -86,6 +202,22 @@ public class TasksClientAdapter {
     tasksClient.tasks().update(taskListId, task.getId(), task).execute();
   }
 
+  /**
+   * Asynchronous variant of {@link #updateTask(String, Task)}.
+   */
+  public CompletableFuture<Void> updateTaskAsync(String taskListId, Task task) {
+    return ApiExecutors.runAsync(() -> updateTask(taskListId, task), executor);
+  }
+
+  /**
+   * Sets only the due date of the task, so that the changes made meanwhile by other clients are kept.
+   *
+   * @param dueDate due date as an <a href='http://tools.ietf.org/html/rfc3339'>RFC 3339</a> value.
+   */
+  public void patchTaskDue(String taskListId, String taskId, String dueDate) throws IOException {
+    tasksClient.tasks().patch(taskListId, taskId, new Task().setDue(dueDate)).execute();
+  }
+
   /**
    * Updates the date of the specified task.
    * The date is specified using a RFC 3339 timestamp.
@@ -115,4 +247,15 @@ public class TasksClientAdapter {
     }
   }
 
+  /**
+   * Updates the tasks concurrently.
+   * The future fails if any of the updates fails.
+   */
+  public CompletableFuture<Void> updateTasksAsync(String taskListId, List<Task> tasks) {
+    return ApiExecutors.allAsList(tasks.stream()
+        .map(task -> updateTaskAsync(taskListId, task))
+        .collect(Collectors.toList()))
+        .thenApply(ignored -> null);
+  }
+
 }
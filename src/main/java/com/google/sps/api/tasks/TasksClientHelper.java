@@ -14,14 +14,19 @@
 
 package com.google.sps.api.tasks;
 
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpStatusCodes;
 import com.google.api.client.util.DateTime;
 import com.google.api.services.tasks.model.Task;
 import com.google.api.services.tasks.model.TaskList;
 import com.google.sps.converter.TimeConverter;
 import com.google.sps.data.ExtendedTask;
+import com.google.sps.data.ListedTask;
 import com.google.sps.scheduler.Scheduler;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -39,6 +44,15 @@ public class TasksClientHelper {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Returns whether the call failed because the task or its task list doesn't exist.
+   */
+  public static boolean isNotFound(Throwable throwable) {
+    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+    return cause instanceof GoogleJsonResponseException
+        && ((GoogleJsonResponseException) cause).getStatusCode() == HttpStatusCodes.STATUS_CODE_NOT_FOUND;
+  }
+
   /**
    * Returns the task list ID of the most recent updated list.
    */
@@ -49,6 +63,27 @@ public class TasksClientHelper {
         .get();
   }
 
+  /**
+   * Returns the IDs of the task lists, in the same order.
+   */
+  public static List<String> getTaskListIds(List<TaskList> taskLists) {
+    if (taskLists == null) {
+      return Collections.emptyList();
+    }
+    return taskLists.stream()
+        .map(TaskList::getId)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the tasks tagged with the ID of the task list they belong to.
+   */
+  public static List<ListedTask> tagTasks(String taskListId, List<Task> tasks) {
+    return tasks.stream()
+        .map(task -> new ListedTask(taskListId, task))
+        .collect(Collectors.toList());
+  }
+
   /**
    * Returns an ExtendedTask with the given due date, with default duration.
    */
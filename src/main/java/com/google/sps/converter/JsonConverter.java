@@ -0,0 +1,54 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+/**
+ * Provides the ObjectMapper shared by all the servlets and requests.
+ * An ObjectMapper is thread-safe once configured, and sharing it also shares its serializer caches.
+ */
+public class JsonConverter {
+  // Afterburner generates the bytecode reading the properties, instead of calling the getters through reflection
+  private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+      .addModule(new AfterburnerModule())
+      .build();
+
+  /**
+   * Returns the shared ObjectMapper, which must not be reconfigured.
+   */
+  public static ObjectMapper getObjectMapper() {
+    return OBJECT_MAPPER;
+  }
+
+  /**
+   * Builds and caches the serializers of the given types, so that the first requests
+   * serializing them don't pay for the introspection.
+   */
+  public static void warmUp(Class<?>... types) {
+    for (Class<?> type : types) {
+      OBJECT_MAPPER.canSerialize(type);
+    }
+  }
+
+  /**
+   * Converts the object into a JSON string.
+   */
+  public static String toJson(Object value) throws JsonProcessingException {
+    return OBJECT_MAPPER.writeValueAsString(value);
+  }
+}
@@ -0,0 +1,288 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.sps.data.ScheduleRequest;
+import com.google.sps.data.SelectedTask;
+import com.google.sps.data.WorkingHours;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the JSON body of a scheduling request token by token, straight into the selected tasks:
+ * <pre>
+ * {"tasks": [{"id": "...", "taskListId": "...", "durationMinutes": 30}, ...],
+ *  "startDate": "2020-08-20", "endDate": "2020-08-21",
+ *  "workingHours": {"startHour": 9, "startMin": 0, "endHour": 18, "endMin": 0}}
+ * </pre>
+ * The dates and the task lists are optional, everything else is required. Unknown or repeated fields,
+ * values of the wrong type or out of range are rejected.
+ */
+public class ScheduleRequestParser {
+  public static final int MAX_TASKS = 500;
+  public static final int MAX_DURATION_MINUTES = 24 * 60;
+
+  /**
+   * Parses the request and closes the stream.
+   *
+   * @throws InvalidRequestException if the body is not a valid scheduling request
+   * @throws IOException if the body could not be read
+   */
+  public static ScheduleRequest parse(InputStream inputStream) throws InvalidRequestException, IOException {
+    try (JsonParser parser = JsonConverter.getObjectMapper().getFactory().createParser(inputStream)) {
+      parser.enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+      return parseRequest(parser);
+    } catch (JsonProcessingException exception) {
+      throw new InvalidRequestException("The request is not valid JSON");
+    }
+  }
+
+  /**
+   * Writes the request in the format read by {@link #parse(InputStream)}.
+   * The dates that are not valid are left out, the scheduling then defaults to tomorrow as it does for them.
+   */
+  public static String toJson(ScheduleRequest scheduleRequest) throws IOException {
+    StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = JsonConverter.getObjectMapper().getFactory().createGenerator(writer)) {
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("tasks");
+      for (SelectedTask task : scheduleRequest.getTasks()) {
+        generator.writeStartObject();
+        generator.writeStringField("id", task.getId());
+        if (task.getTaskListId() != null) {
+          generator.writeStringField("taskListId", task.getTaskListId());
+        }
+        generator.writeNumberField("durationMinutes", TimeUnit.MILLISECONDS.toMinutes(task.getDuration()));
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      if (isDate(scheduleRequest.getStartDate())) {
+        generator.writeStringField("startDate", scheduleRequest.getStartDate());
+      }
+      if (isDate(scheduleRequest.getEndDate())) {
+        generator.writeStringField("endDate", scheduleRequest.getEndDate());
+      }
+      WorkingHours workingHours = scheduleRequest.getWorkingHours();
+      generator.writeObjectFieldStart("workingHours");
+      generator.writeNumberField("startHour", workingHours.getStartHour());
+      generator.writeNumberField("startMin", workingHours.getStartMin());
+      generator.writeNumberField("endHour", workingHours.getEndHour());
+      generator.writeNumberField("endMin", workingHours.getEndMin());
+      generator.writeEndObject();
+      generator.writeEndObject();
+    }
+    return writer.toString();
+  }
+
+  private static ScheduleRequest parseRequest(JsonParser parser) throws InvalidRequestException, IOException {
+    expect(parser.nextToken(), JsonToken.START_OBJECT, "The request must be a JSON object");
+    List<SelectedTask> tasks = null;
+    String startDate = null;
+    String endDate = null;
+    WorkingHours workingHours = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case "tasks":
+          tasks = parseTasks(parser);
+          break;
+        case "startDate":
+          startDate = parseDate(parser, field);
+          break;
+        case "endDate":
+          endDate = parseDate(parser, field);
+          break;
+        case "workingHours":
+          workingHours = parseWorkingHours(parser);
+          break;
+        default:
+          throw new InvalidRequestException("Unknown field " + field);
+      }
+    }
+    if (parser.nextToken() != null) {
+      throw new InvalidRequestException("Unexpected content after the request");
+    }
+    if (tasks == null || tasks.isEmpty()) {
+      throw new InvalidRequestException("Select some tasks to schedule.");
+    }
+    if (workingHours == null) {
+      throw new InvalidRequestException("Working hours are missing");
+    }
+    return new ScheduleRequest(tasks, startDate, endDate, workingHours);
+  }
+
+  private static List<SelectedTask> parseTasks(JsonParser parser) throws InvalidRequestException, IOException {
+    expect(parser.currentToken(), JsonToken.START_ARRAY, "tasks must be an array");
+    List<SelectedTask> tasks = new ArrayList<>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (tasks.size() == MAX_TASKS) {
+        throw new InvalidRequestException("At most " + MAX_TASKS + " tasks can be scheduled at once");
+      }
+      SelectedTask task = parseTask(parser);
+      if (!tasks.isEmpty() && (tasks.get(0).getTaskListId() == null) != (task.getTaskListId() == null)) {
+        throw new InvalidRequestException("Either all the tasks or none of them must have a taskListId");
+      }
+      tasks.add(task);
+    }
+    return tasks;
+  }
+
+  private static SelectedTask parseTask(JsonParser parser) throws InvalidRequestException, IOException {
+    expect(parser.currentToken(), JsonToken.START_OBJECT, "Each task must be an object");
+    String id = null;
+    String taskListId = null;
+    Long duration = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case "id":
+          id = parseString(parser, field);
+          break;
+        case "taskListId":
+          taskListId = parseString(parser, field);
+          break;
+        case "durationMinutes":
+          expect(parser.currentToken(), JsonToken.VALUE_NUMBER_INT, field + " must be an integer");
+          duration = parseDuration(field, parser.getText());
+          break;
+        default:
+          throw new InvalidRequestException("Unknown task field " + field);
+      }
+    }
+    if (id == null || duration == null) {
+      throw new InvalidRequestException("Each task needs an id and a durationMinutes");
+    }
+    return new SelectedTask(id, taskListId, duration);
+  }
+
+  /**
+   * Returns in milliseconds the duration of a task given in minutes, which must be an integer
+   * between 1 and {@link #MAX_DURATION_MINUTES}. The JSON and the form requests are both checked with it.
+   *
+   * @param field name of the duration in the request, used in the error messages
+   * @throws InvalidRequestException if the duration is not an integer or is out of range
+   */
+  public static long parseDuration(String field, String minutes) throws InvalidRequestException {
+    BigInteger durationMinutes;
+    try {
+      durationMinutes = new BigInteger(minutes);
+    } catch (NumberFormatException | NullPointerException exception) {
+      throw new InvalidRequestException(field + " must be an integer");
+    }
+    if (durationMinutes.compareTo(BigInteger.ONE) < 0
+        || durationMinutes.compareTo(BigInteger.valueOf(MAX_DURATION_MINUTES)) > 0) {
+      throw new InvalidRequestException(field + " must be between 1 and " + MAX_DURATION_MINUTES);
+    }
+    return TimeUnit.MINUTES.toMillis(durationMinutes.longValue());
+  }
+
+  private static WorkingHours parseWorkingHours(JsonParser parser) throws InvalidRequestException, IOException {
+    expect(parser.currentToken(), JsonToken.START_OBJECT, "workingHours must be an object");
+    Integer startHour = null;
+    Integer startMin = null;
+    Integer endHour = null;
+    Integer endMin = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case "startHour":
+          startHour = parseInt(parser, field, 0, 23);
+          break;
+        case "startMin":
+          startMin = parseInt(parser, field, 0, 59);
+          break;
+        case "endHour":
+          endHour = parseInt(parser, field, 0, 23);
+          break;
+        case "endMin":
+          endMin = parseInt(parser, field, 0, 59);
+          break;
+        default:
+          throw new InvalidRequestException("Unknown working hours field " + field);
+      }
+    }
+    if (startHour == null || startMin == null || endHour == null || endMin == null) {
+      throw new InvalidRequestException("workingHours needs startHour, startMin, endHour and endMin");
+    }
+    if (endHour < startHour || (startHour.equals(endHour) && endMin <= startMin)) {
+      throw new InvalidRequestException("Select valid working hours (end time must be greater than start time)");
+    }
+    return new WorkingHours(startHour, startMin, endHour, endMin);
+  }
+
+  private static String parseDate(JsonParser parser, String field) throws InvalidRequestException, IOException {
+    String date = parseString(parser, field);
+    try {
+      LocalDate.parse(date);
+    } catch (DateTimeParseException exception) {
+      throw new InvalidRequestException(field + " must be a date like 2020-08-20");
+    }
+    return date;
+  }
+
+  private static String parseString(JsonParser parser, String field) throws InvalidRequestException, IOException {
+    expect(parser.currentToken(), JsonToken.VALUE_STRING, field + " must be a string");
+    String value = parser.getText();
+    if (value.isEmpty()) {
+      throw new InvalidRequestException(field + " must not be empty");
+    }
+    return value;
+  }
+
+  private static int parseInt(JsonParser parser, String field, int min, int max)
+      throws InvalidRequestException, IOException {
+    expect(parser.currentToken(), JsonToken.VALUE_NUMBER_INT, field + " must be an integer");
+    if (parser.getNumberType() != JsonParser.NumberType.INT) {
+      throw new InvalidRequestException(field + " must be between " + min + " and " + max);
+    }
+    int value = parser.getIntValue();
+    if (value < min || value > max) {
+      throw new InvalidRequestException(field + " must be between " + min + " and " + max);
+    }
+    return value;
+  }
+
+  private static boolean isDate(String date) {
+    if (date == null) {
+      return false;
+    }
+    try {
+      LocalDate.parse(date);
+      return true;
+    } catch (DateTimeParseException exception) {
+      return false;
+    }
+  }
+
+  private static void expect(JsonToken token, JsonToken expectedToken, String message)
+      throws InvalidRequestException {
+    if (token != expectedToken) {
+      throw new InvalidRequestException(message);
+    }
+  }
+}
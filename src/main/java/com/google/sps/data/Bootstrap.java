@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.sps.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * Data of the first render of the page, sent inline with it. The tasks are missing if they could not
+ * be loaded in time, in which case the page requests them.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Bootstrap {
+  private final String email;
+  private final List<TaskSummary> tasks;
+
+  public Bootstrap(String email, List<TaskSummary> tasks) {
+    this.email = email;
+    this.tasks = tasks;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+
+  public List<TaskSummary> getTasks() {
+    return tasks;
+  }
+}
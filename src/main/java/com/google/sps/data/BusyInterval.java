@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.sps.data;
+
+import com.google.api.services.calendar.model.Event;
+import java.util.Objects;
+
+/**
+ * Time interval blocked by a calendar event, in epoch milliseconds.
+ */
+public class BusyInterval {
+
+  private final long start;
+  private final long end;
+
+  public BusyInterval(long start, long end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns the interval blocked by the event, which must have start.DateTime and end.DateTime set.
+   */
+  public static BusyInterval fromEvent(Event event) {
+    return new BusyInterval(
+        event.getStart().getDateTime().getValue(),
+        event.getEnd().getDateTime().getValue());
+  }
+
+  public long getStart() {
+    return start;
+  }
+
+  public long getEnd() {
+    return end;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof BusyInterval)) {
+      return false;
+    }
+    BusyInterval interval = (BusyInterval) other;
+    return start == interval.start && end == interval.end;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(start, end);
+  }
+
+  @Override
+  public String toString() {
+    return "BusyInterval{start=" + start + ", end=" + end + "}";
+  }
+}
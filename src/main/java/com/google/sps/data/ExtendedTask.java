@@ -29,14 +29,26 @@ public class ExtendedTask extends GenericData {
   private Task task;
   @Key
   private long duration;
+  @Key
+  private String taskListId;
 
   /**
    * @param task represented task
    * @param duration duration of the task in milliseconds
    */
   public ExtendedTask(Task task, Long duration) {
+    this(task, duration, null);
+  }
+
+  /**
+   * @param task represented task
+   * @param duration duration of the task in milliseconds
+   * @param taskListId ID of the task list the task belongs to
+   */
+  public ExtendedTask(Task task, Long duration, String taskListId) {
     this.task = task;
     this.duration = duration;
+    this.taskListId = taskListId;
   }
 
   public static ExtendedTask getExtendedTaskWithDuration(long duration) {
@@ -55,6 +67,10 @@ public class ExtendedTask extends GenericData {
     this.duration = duration;
   }
 
+  public String getTaskListId() {
+    return taskListId;
+  }
+
   public String getId() {
     return task.getId();
   }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.sps.data;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.api.services.tasks.model.Task;
+
+// A task tagged with the ID of the task list it belongs to.
+// It is serialized as the task's own properties plus taskListId.
+public class ListedTask {
+  private final String taskListId;
+  private final Task task;
+
+  public ListedTask(String taskListId, Task task) {
+    this.taskListId = taskListId;
+    this.task = task;
+  }
+
+  @JsonProperty
+  public String getTaskListId() {
+    return taskListId;
+  }
+
+  @JsonAnyGetter
+  public Task getTask() {
+    return task;
+  }
+}
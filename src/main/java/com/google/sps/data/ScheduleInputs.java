@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.sps.data;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * What the scheduling reads before placing the tasks: the selected tasks with their durations,
+ * the time zone of the calendar, the range of days and the busy intervals covering it.
+ */
+public class ScheduleInputs {
+  private final List<ExtendedTask> tasks;
+  private final String timeZone;
+  private final DateRange dateRange;
+  private final List<BusyInterval> busyIntervals;
+
+  public ScheduleInputs(List<ExtendedTask> tasks, String timeZone, DateRange dateRange,
+      List<BusyInterval> busyIntervals) {
+    this.tasks = tasks;
+    this.timeZone = timeZone;
+    this.dateRange = dateRange;
+    this.busyIntervals = busyIntervals;
+  }
+
+  public List<ExtendedTask> getTasks() {
+    return tasks;
+  }
+
+  public String getTimeZone() {
+    return timeZone;
+  }
+
+  public DateRange getDateRange() {
+    return dateRange;
+  }
+
+  public List<BusyInterval> getBusyIntervals() {
+    return busyIntervals;
+  }
+
+  /**
+   * Returns whether the busy intervals cover all the days of the range.
+   */
+  public boolean covers(DateRange range) {
+    return !range.getStartDate().isBefore(dateRange.getStartDate())
+        && !range.getEndDate().isAfter(dateRange.getEndDate());
+  }
+
+  /**
+   * Returns the task with the id in the task list, or null if it is not among the tasks.
+   */
+  public ExtendedTask findTask(String taskListId, String taskId) {
+    for (ExtendedTask task : tasks) {
+      if (task.getId().equals(taskId) && task.getTaskListId().equals(taskListId)) {
+        return task;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the same inputs with a copy of each task, so that scheduling the copies leaves these tasks unchanged.
+   */
+  public ScheduleInputs copy() {
+    List<ExtendedTask> copiedTasks = tasks.stream()
+        .map(task -> new ExtendedTask(task.getTask().clone(), task.getDuration(), task.getTaskListId()))
+        .collect(Collectors.toList());
+    return new ScheduleInputs(copiedTasks, timeZone, dateRange, busyIntervals);
+  }
+}
@@ -16,14 +16,46 @@
 
 package com.google.sps.data;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * Response of the scheduling. The ids are only sent when tasks were scheduled:
+ * committed tasks were saved in Tasks and Calendar, incomplete tasks only got their due date
+ * saved in Tasks, and skipped tasks were not saved at all.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ScheduleMessage {
   private String message;
+  private List<String> committedTaskIds;
+  private List<String> incompleteTaskIds;
+  private List<String> skippedTaskIds;
 
   public ScheduleMessage(String message) {
     this.message = message;
   }
 
+  public ScheduleMessage(String message, List<String> committedTaskIds, List<String> incompleteTaskIds,
+      List<String> skippedTaskIds) {
+    this.message = message;
+    this.committedTaskIds = committedTaskIds;
+    this.incompleteTaskIds = incompleteTaskIds;
+    this.skippedTaskIds = skippedTaskIds;
+  }
+
   public String getMessage() {
     return message;
   }
+
+  public List<String> getCommittedTaskIds() {
+    return committedTaskIds;
+  }
+
+  public List<String> getIncompleteTaskIds() {
+    return incompleteTaskIds;
+  }
+
+  public List<String> getSkippedTaskIds() {
+    return skippedTaskIds;
+  }
 }
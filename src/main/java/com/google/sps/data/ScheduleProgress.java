@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.sps.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * A line of the streamed response of the scheduling: a task was scheduled at its due date,
+ * a scheduled task was saved with a status, the scheduling is done with its final message,
+ * or it failed with the HTTP status the response would have had if nothing had been streamed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"type", "taskId", "due", "status", "httpStatus", "result"})
+public class ScheduleProgress {
+  public static final String SCHEDULED = "scheduled";
+  public static final String SAVED = "saved";
+  public static final String DONE = "done";
+  public static final String FAILED = "failed";
+  private final String type;
+  private final String taskId;
+  private final String due;
+  private final String status;
+  private final Integer httpStatus;
+  private final ScheduleMessage result;
+
+  private ScheduleProgress(String type, String taskId, String due, String status, Integer httpStatus,
+      ScheduleMessage result) {
+    this.type = type;
+    this.taskId = taskId;
+    this.due = due;
+    this.status = status;
+    this.httpStatus = httpStatus;
+    this.result = result;
+  }
+
+  public static ScheduleProgress scheduled(String taskId, String due) {
+    return new ScheduleProgress(SCHEDULED, taskId, due, null, null, null);
+  }
+
+  public static ScheduleProgress saved(String taskId, String status) {
+    return new ScheduleProgress(SAVED, taskId, null, status, null, null);
+  }
+
+  public static ScheduleProgress done(ScheduleMessage result) {
+    return new ScheduleProgress(DONE, null, null, null, null, result);
+  }
+
+  public static ScheduleProgress failed(int httpStatus) {
+    return new ScheduleProgress(FAILED, null, null, null, httpStatus, null);
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getTaskId() {
+    return taskId;
+  }
+
+  public String getDue() {
+    return due;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public Integer getHttpStatus() {
+    return httpStatus;
+  }
+
+  public ScheduleMessage getResult() {
+    return result;
+  }
+}
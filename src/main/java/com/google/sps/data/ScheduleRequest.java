@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.sps.data;
+
+import java.util.List;
+
+/**
+ * What the user asked to schedule: the selected tasks, the range of days and the working hours.
+ * The dates are kept as received, since the default range depends on the time zone of the calendar.
+ */
+public class ScheduleRequest {
+  private final List<SelectedTask> tasks;
+  private final String startDate;
+  private final String endDate;
+  private final WorkingHours workingHours;
+
+  /**
+   * @param tasks selected tasks, which either all have their task list or none has
+   * @param startDate first day to schedule on in ISO format, or null for tomorrow
+   * @param endDate last day to schedule on in ISO format, or null for tomorrow
+   */
+  public ScheduleRequest(List<SelectedTask> tasks, String startDate, String endDate, WorkingHours workingHours) {
+    this.tasks = tasks;
+    this.startDate = startDate;
+    this.endDate = endDate;
+    this.workingHours = workingHours;
+  }
+
+  public List<SelectedTask> getTasks() {
+    return tasks;
+  }
+
+  public String getStartDate() {
+    return startDate;
+  }
+
+  public String getEndDate() {
+    return endDate;
+  }
+
+  public WorkingHours getWorkingHours() {
+    return workingHours;
+  }
+
+  /**
+   * Returns whether the task lists of the tasks are known, otherwise they are all in the most recent list.
+   */
+  public boolean hasTaskListIds() {
+    return !tasks.isEmpty() && tasks.get(0).getTaskListId() != null;
+  }
+}
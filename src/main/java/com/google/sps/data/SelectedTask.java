@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.sps.data;
+
+/**
+ * A task selected to be scheduled, with the duration chosen for it.
+ */
+public class SelectedTask {
+  private final String id;
+  private final String taskListId;
+  private final long duration;
+
+  /**
+   * @param taskListId ID of the task list of the task, or null if it is in the most recently updated list
+   * @param duration duration of the task in milliseconds
+   */
+  public SelectedTask(String id, String taskListId, long duration) {
+    this.id = id;
+    this.taskListId = taskListId;
+    this.duration = duration;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getTaskListId() {
+    return taskListId;
+  }
+
+  public long getDuration() {
+    return duration;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.sps.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.google.api.services.tasks.model.Task;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The fields of a task that the page renders, sent by /load_tasks instead of the whole Tasks model,
+ * and by /schedule/preview with the proposed due date.
+ * The task list ID is only sent when the task list of the task is known.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"id", "title", "notes", "due", "taskListId"})
+public class TaskSummary {
+  private final String id;
+  private final String title;
+  private final String notes;
+  private final String due;
+  private final String taskListId;
+
+  public TaskSummary(String id, String title, String notes, String due, String taskListId) {
+    this.id = id;
+    this.title = title;
+    this.notes = notes;
+    this.due = due;
+    this.taskListId = taskListId;
+  }
+
+  public static TaskSummary of(Task task) {
+    return of(task, null);
+  }
+
+  public static TaskSummary of(ListedTask listedTask) {
+    return of(listedTask.getTask(), listedTask.getTaskListId());
+  }
+
+  public static TaskSummary of(ExtendedTask extendedTask) {
+    return of(extendedTask.getTask(), extendedTask.getTaskListId());
+  }
+
+  private static TaskSummary of(Task task, String taskListId) {
+    return new TaskSummary(task.getId(), task.getTitle(), task.getNotes(), task.getDue(), taskListId);
+  }
+
+  public static List<TaskSummary> ofTasks(List<Task> tasks) {
+    return tasks.stream().map(TaskSummary::of).collect(Collectors.toList());
+  }
+
+  public static List<TaskSummary> ofListedTasks(List<ListedTask> listedTasks) {
+    return listedTasks.stream().map(TaskSummary::of).collect(Collectors.toList());
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public String getNotes() {
+    return notes;
+  }
+
+  public String getDue() {
+    return due;
+  }
+
+  public String getTaskListId() {
+    return taskListId;
+  }
+}
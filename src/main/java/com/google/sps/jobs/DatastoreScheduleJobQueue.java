@@ -0,0 +1,265 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.jobs;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Text;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.sps.api.concurrent.ApiExecutors;
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.converter.InvalidRequestException;
+import com.google.sps.converter.JsonConverter;
+import com.google.sps.converter.ScheduleRequestParser;
+import com.google.sps.data.ScheduleMessage;
+import com.google.sps.data.ScheduleRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queue of the scheduling jobs stored in Datastore and run by the App Engine Task Queue.
+ * Each job is run by a push request of the schedule-jobs queue, declared in queue.xml, so it has
+ * its own request deadline and environment for the API calls, and its status is read from any instance.
+ * While the job runs, its progress is stored at most once per second.
+ * The queue doesn't retry the requests, so a job whose request was lost, e.g. with its instance, is reported
+ * as failed once it has been queued or running for longer than the job timeout and a margin.
+ */
+public class DatastoreScheduleJobQueue implements ScheduleJobQueue {
+  private static final Logger logger = Logger.getLogger(DatastoreScheduleJobQueue.class.getName());
+  public static final String QUEUE_NAME = "schedule-jobs";
+  private static final String KIND = "ScheduleJob";
+  private static final String USER_ID_PROPERTY = "userId";
+  static final String CREATED_PROPERTY = "created";
+  static final String STARTED_PROPERTY = "started";
+  private static final String REQUEST_PROPERTY = "request";
+  private static final String STATE_PROPERTY = "state";
+  private static final String SCHEDULED_TASKS_PROPERTY = "scheduledTasks";
+  private static final String SAVED_TASKS_PROPERTY = "savedTasks";
+  private static final String RESULT_PROPERTY = "result";
+  private static final String ERROR_PROPERTY = "error";
+  private static final long PROGRESS_WRITE_INTERVAL_MILLIS = 1000;
+  /**
+   * Time left after the timeout of a job to deliver its request and to store its outcome.
+   */
+  private static final long LEASE_MARGIN_MILLIS = 60000;
+  private static final String LEASE_EXPIRED_ERROR = "The scheduling was interrupted";
+  private static final DatastoreScheduleJobQueue INSTANCE = new DatastoreScheduleJobQueue(
+      DatastoreServiceFactory.getDatastoreService(), QueueFactory.getQueue(QUEUE_NAME));
+  private final DatastoreService datastore;
+  private final Queue queue;
+
+  /**
+   * @param datastore where the jobs are stored
+   * @param queue push queue whose requests run the jobs
+   */
+  public DatastoreScheduleJobQueue(DatastoreService datastore, Queue queue) {
+    this.datastore = datastore;
+    this.queue = queue;
+  }
+
+  public static DatastoreScheduleJobQueue getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public ScheduleJob submit(String userId, ScheduleRequest scheduleRequest) throws IOException {
+    ScheduleJob job = new ScheduleJob(UUID.randomUUID().toString(), userId);
+    Entity entity = new Entity(KIND, job.getId());
+    entity.setProperty(USER_ID_PROPERTY, userId);
+    entity.setProperty(CREATED_PROPERTY, new Date());
+    entity.setUnindexedProperty(REQUEST_PROPERTY, new Text(ScheduleRequestParser.toJson(scheduleRequest)));
+    setStatus(entity, job);
+    try {
+      datastore.put(entity);
+      queue.add(TaskOptions.Builder.withUrl(RUN_PATH).param(JOB_ID_KEY, job.getId()));
+    } catch (RuntimeException exception) {
+      throw new IOException("The scheduling job could not be enqueued", exception);
+    }
+    return job;
+  }
+
+  @Override
+  public void run(String jobId, Deadline deadline, Work work) throws IOException {
+    Entity entity = start(jobId);
+    if (entity == null) {
+      logger.warning("Scheduling job " + jobId + " is not queued, it is not run");
+      return;
+    }
+    ScheduleJob job = toJob(entity);
+    AtomicLong lastProgressWriteMillis = new AtomicLong(System.currentTimeMillis());
+    job.setProgressListener(() -> storeProgress(job, entity, lastProgressWriteMillis));
+    CompletableFuture<ScheduleMessage> result = null;
+    try {
+      String request = ((Text) entity.getProperty(REQUEST_PROPERTY)).getValue();
+      ScheduleRequest scheduleRequest =
+          ScheduleRequestParser.parse(new ByteArrayInputStream(request.getBytes(StandardCharsets.UTF_8)));
+      result = work.run(scheduleRequest, job);
+      job.complete(JsonConverter.toJson(ApiExecutors.await(result, deadline)));
+    } catch (InvalidRequestException | IOException | RuntimeException exception) {
+      logger.log(Level.WARNING, "Scheduling job " + jobId + " failed", exception);
+      if (result != null) {
+        // The saves that have not started are not made after the job failed
+        result.cancel(false);
+      }
+      job.fail("The scheduling could not be completed");
+    }
+    synchronized (job) {
+      setStatus(entity, job);
+      put(entity);
+    }
+  }
+
+  /**
+   * Marks the job as running and returns it, or returns null if it doesn't exist or is not queued.
+   * The check and the change are made in a transaction, so that a job delivered twice is run once.
+   * A job delivered after its lease expired is stored as failed, as it was already reported.
+   */
+  private Entity start(String jobId) throws IOException {
+    Transaction transaction = datastore.beginTransaction();
+    try {
+      Entity entity = datastore.get(transaction, getKey(jobId));
+      if (!ScheduleJob.State.QUEUED.name().equals(entity.getProperty(STATE_PROPERTY))) {
+        return null;
+      }
+      if (isLeaseExpired(entity)) {
+        ScheduleJob job = toJob(entity);
+        job.fail(LEASE_EXPIRED_ERROR);
+        setStatus(entity, job);
+        datastore.put(transaction, entity);
+        transaction.commit();
+        return null;
+      }
+      entity.setUnindexedProperty(STATE_PROPERTY, ScheduleJob.State.RUNNING.name());
+      entity.setUnindexedProperty(STARTED_PROPERTY, new Date());
+      datastore.put(transaction, entity);
+      transaction.commit();
+      return entity;
+    } catch (EntityNotFoundException | IllegalArgumentException exception) {
+      return null;
+    } catch (RuntimeException exception) {
+      throw new IOException("The scheduling job " + jobId + " could not be started", exception);
+    } finally {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+    }
+  }
+
+  /**
+   * Stores the progress of the running job, unless it was stored less than a second ago.
+   * Once the job ended, its outcome is stored instead.
+   */
+  private void storeProgress(ScheduleJob job, Entity entity, AtomicLong lastProgressWriteMillis) {
+    long now = System.currentTimeMillis();
+    long lastWriteMillis = lastProgressWriteMillis.get();
+    if (now - lastWriteMillis < PROGRESS_WRITE_INTERVAL_MILLIS
+        || !lastProgressWriteMillis.compareAndSet(lastWriteMillis, now)) {
+      return;
+    }
+    synchronized (job) {
+      if (job.isEnded()) {
+        return;
+      }
+      setStatus(entity, job);
+      try {
+        put(entity);
+      } catch (IOException exception) {
+        logger.log(Level.WARNING, "The progress of scheduling job " + job.getId() + " was not stored", exception);
+      }
+    }
+  }
+
+  private void put(Entity entity) throws IOException {
+    try {
+      datastore.put(entity);
+    } catch (RuntimeException exception) {
+      throw new IOException("The scheduling job " + entity.getKey().getName() + " could not be stored", exception);
+    }
+  }
+
+  @Override
+  public ScheduleJob get(String userId, String jobId) throws IOException {
+    Entity entity;
+    try {
+      entity = datastore.get(getKey(jobId));
+    } catch (EntityNotFoundException | IllegalArgumentException exception) {
+      return null;
+    } catch (RuntimeException exception) {
+      throw new IOException("The scheduling job " + jobId + " could not be read", exception);
+    }
+    ScheduleJob job = toJob(entity);
+    if (!job.getUserId().equals(userId)) {
+      return null;
+    }
+    if (!job.isEnded() && isLeaseExpired(entity)) {
+      job.fail(LEASE_EXPIRED_ERROR);
+    }
+    return job;
+  }
+
+  /**
+   * Returns whether the job has been queued, or running, for longer than it can take,
+   * measured from its creation, or from its start once it is running.
+   */
+  private static boolean isLeaseExpired(Entity entity) {
+    Date leaseStart = (Date) entity.getProperty(STARTED_PROPERTY);
+    if (leaseStart == null) {
+      leaseStart = (Date) entity.getProperty(CREATED_PROPERTY);
+    }
+    long leaseMillis = ScheduleJobQueue.getTimeoutMillis() + LEASE_MARGIN_MILLIS;
+    return System.currentTimeMillis() - leaseStart.getTime() > leaseMillis;
+  }
+
+  private static Key getKey(String jobId) {
+    return KeyFactory.createKey(KIND, jobId);
+  }
+
+  /**
+   * Sets the state, the progress and the outcome of the job in its entity.
+   */
+  private static void setStatus(Entity entity, ScheduleJob job) {
+    entity.setUnindexedProperty(STATE_PROPERTY, job.getState().name());
+    entity.setUnindexedProperty(SCHEDULED_TASKS_PROPERTY, job.getScheduledTasks());
+    entity.setUnindexedProperty(SAVED_TASKS_PROPERTY, job.getSavedTasks());
+    entity.setUnindexedProperty(RESULT_PROPERTY, job.getResult() == null ? null : new Text(job.getResult()));
+    entity.setUnindexedProperty(ERROR_PROPERTY, job.getError());
+  }
+
+  private static ScheduleJob toJob(Entity entity) {
+    Text result = (Text) entity.getProperty(RESULT_PROPERTY);
+    return new ScheduleJob(
+        entity.getKey().getName(),
+        (String) entity.getProperty(USER_ID_PROPERTY),
+        ScheduleJob.State.valueOf((String) entity.getProperty(STATE_PROPERTY)),
+        ((Number) entity.getProperty(SCHEDULED_TASKS_PROPERTY)).intValue(),
+        ((Number) entity.getProperty(SAVED_TASKS_PROPERTY)).intValue(),
+        result == null ? null : result.getValue(),
+        (String) entity.getProperty(ERROR_PROPERTY));
+  }
+}
@@ -0,0 +1,140 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.jobs;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A scheduling run in the background, with its progress and its result once it is done.
+ * It is updated by the request running it and stored, so that the status requests read it from any instance.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"id", "state", "scheduledTasks", "savedTasks", "result", "error"})
+public class ScheduleJob {
+
+  public enum State {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+  }
+
+  private final String id;
+  private final String userId;
+  private final AtomicInteger scheduledTasks;
+  private final AtomicInteger savedTasks;
+  private volatile State state;
+  private volatile String result;
+  private volatile String error;
+  private volatile Runnable progressListener = () -> {};
+
+  /**
+   * @param userId user who submitted the job, the only one allowed to read it
+   */
+  public ScheduleJob(String id, String userId) {
+    this(id, userId, State.QUEUED, 0, 0, null, null);
+  }
+
+  /**
+   * Restores a stored job.
+   *
+   * @param result JSON of the result, or null if the job is not done
+   */
+  ScheduleJob(String id, String userId, State state, int scheduledTasks, int savedTasks, String result,
+      String error) {
+    this.id = id;
+    this.userId = userId;
+    this.state = state;
+    this.scheduledTasks = new AtomicInteger(scheduledTasks);
+    this.savedTasks = new AtomicInteger(savedTasks);
+    this.result = result;
+    this.error = error;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  @JsonIgnore
+  public String getUserId() {
+    return userId;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * Returns the number of tasks placed in the calendar so far.
+   */
+  public int getScheduledTasks() {
+    return scheduledTasks.get();
+  }
+
+  /**
+   * Returns the number of scheduled tasks whose save finished so far, whatever its outcome.
+   */
+  public int getSavedTasks() {
+    return savedTasks.get();
+  }
+
+  /**
+   * Returns the JSON of the {@link com.google.sps.data.ScheduleMessage} of the job, or null if it is not done.
+   */
+  @JsonRawValue
+  public String getResult() {
+    return result;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  @JsonIgnore
+  public boolean isEnded() {
+    return state == State.DONE || state == State.FAILED;
+  }
+
+  public void taskScheduled() {
+    scheduledTasks.incrementAndGet();
+    progressListener.run();
+  }
+
+  public void taskSaved() {
+    savedTasks.incrementAndGet();
+    progressListener.run();
+  }
+
+  /**
+   * Sets the listener run after each change of the progress, on the thread making it.
+   */
+  void setProgressListener(Runnable progressListener) {
+    this.progressListener = progressListener;
+  }
+
+  void complete(String result) {
+    this.result = result;
+    state = State.DONE;
+  }
+
+  void fail(String error) {
+    this.error = error;
+    state = State.FAILED;
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.jobs;
+
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.data.ScheduleMessage;
+import com.google.sps.data.ScheduleRequest;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Queue of the scheduling jobs: submitting a job returns at once, and the job is run later
+ * by a request to {@link #RUN_PATH}, with the id of the job as the {@link #JOB_ID_KEY} parameter.
+ */
+public interface ScheduleJobQueue {
+  String RUN_PATH = "/admin/jobs/schedule";
+  String JOB_ID_KEY = "jobId";
+  String TIMEOUT_PROPERTY = "sps.jobs.timeoutMillis";
+  long DEFAULT_TIMEOUT_MILLIS = 300000;
+
+  /**
+   * Returns the deadline of a job starting now, set with the sps.jobs.timeoutMillis system property
+   * and no later than the deadline of the current request.
+   */
+  static Deadline newJobDeadline() {
+    return Deadline.after(Math.min(getTimeoutMillis(), Deadline.ofCurrentRequest().getRemainingMillis()));
+  }
+
+  /**
+   * Returns the longest time a job runs, set with the sps.jobs.timeoutMillis system property.
+   */
+  static long getTimeoutMillis() {
+    return Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Runs a scheduling job.
+   */
+  interface Work {
+    /**
+     * Starts the scheduling of the request, reporting its progress to the job.
+     */
+    CompletableFuture<ScheduleMessage> run(ScheduleRequest scheduleRequest, ScheduleJob job) throws IOException;
+  }
+
+  /**
+   * Stores the request as a new job of the user and enqueues it.
+   *
+   * @throws IOException if the job could not be stored or enqueued
+   */
+  ScheduleJob submit(String userId, ScheduleRequest scheduleRequest) throws IOException;
+
+  /**
+   * Runs the job with the id on the current request until it is done or the deadline passes,
+   * and stores its outcome. A job that is not queued anymore, because it was already delivered, is not run again.
+   *
+   * @throws IOException if the job could not be read or stored
+   */
+  void run(String jobId, Deadline deadline, Work work) throws IOException;
+
+  /**
+   * Returns the job of the user with the id, or null if there is none.
+   * A job still queued or running long after its timeout is returned as failed, since its request was lost.
+   */
+  ScheduleJob get(String userId, String jobId) throws IOException;
+}
@@ -0,0 +1,70 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.scheduler;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.sps.data.ScheduleInputs;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the last inputs read by the scheduling of each user for a short time, so that previews with
+ * other working hours, dates or durations, and the scheduling that commits one of them, don't read them again.
+ * The cached inputs are copies: scheduling them never changes the cache.
+ * The time they are kept is set with the sps.schedule.inputsCacheSeconds system property.
+ */
+public class ScheduleInputsCache {
+  public static final String EXPIRY_PROPERTY = "sps.schedule.inputsCacheSeconds";
+  public static final long DEFAULT_EXPIRY_SECONDS = 120;
+  private static final long MAX_USERS = 1000;
+  private static final ScheduleInputsCache INSTANCE = new ScheduleInputsCache(
+      Long.getLong(EXPIRY_PROPERTY, DEFAULT_EXPIRY_SECONDS), Ticker.systemTicker());
+  private final Cache<String, ScheduleInputs> inputs;
+
+  ScheduleInputsCache(long expirySeconds, Ticker ticker) {
+    inputs = CacheBuilder.newBuilder()
+        .maximumSize(MAX_USERS)
+        .expireAfterWrite(expirySeconds, TimeUnit.SECONDS)
+        .ticker(ticker)
+        .build();
+  }
+
+  public static ScheduleInputsCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns a copy of the last inputs of the user, or null if they were not read recently.
+   */
+  public ScheduleInputs get(String userId) {
+    ScheduleInputs cachedInputs = inputs.getIfPresent(userId);
+    return cachedInputs == null ? null : cachedInputs.copy();
+  }
+
+  /**
+   * Replaces the inputs of the user with a copy of the given ones.
+   */
+  public void put(String userId, ScheduleInputs scheduleInputs) {
+    inputs.put(userId, scheduleInputs.copy());
+  }
+
+  /**
+   * Drops the inputs of the user, after the tasks or the calendar were written.
+   */
+  public void invalidate(String userId) {
+    inputs.invalidate(userId);
+  }
+}
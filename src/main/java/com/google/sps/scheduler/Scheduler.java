@@ -18,6 +18,7 @@ import com.google.api.client.util.DateTime;
 import com.google.api.services.calendar.model.Event;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.TreeMultimap;
+import com.google.sps.data.BusyInterval;
 import com.google.sps.data.ExtendedTask;
 import com.google.sps.data.WorkingHours;
 import java.time.LocalDate;
@@ -29,6 +30,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.google.sps.converter.TimeConverter.epochInMilliseconds;
 import static com.google.sps.converter.TimeConverter.epochToDateTime;
@@ -50,7 +52,7 @@ public class Scheduler {
   private final int endHour;
   private final int endMin;
   private TreeMultimap<Long, ExtendedTask> longestFirstOrderedTasks;
-  private Set<Event> orderedCalendarEvents;
+  private Set<BusyInterval> orderedBusyIntervals;
   private List<ExtendedTask> scheduledTasks;
 
 
@@ -60,6 +62,15 @@ public class Scheduler {
 
   // Todo: consider using builder pattern
   public Scheduler(Collection<Event> calendarEvents, List<ExtendedTask> tasks, String timeZone, WorkingHours workingHours) {
+    this(calendarEvents.stream().map(BusyInterval::fromEvent).collect(Collectors.toList()),
+        tasks, timeZone, workingHours);
+  }
+
+  /**
+   * Creates a scheduler working on the intervals blocked by the calendar events,
+   * instead of the events themselves.
+   */
+  public Scheduler(List<BusyInterval> busyIntervals, List<ExtendedTask> tasks, String timeZone, WorkingHours workingHours) {
     this.tasks = tasks;
     this.timeZone = timeZone;
     this.startHour = workingHours.getStartHour();
@@ -67,9 +78,8 @@ public class Scheduler {
     this.endHour = workingHours.getEndHour();
     this.endMin = workingHours.getEndMin();
 
-    orderedCalendarEvents = new TreeSet<>(
-        Comparator.comparingLong(event -> event.getStart().getDateTime().getValue()));
-    orderedCalendarEvents.addAll(calendarEvents);
+    orderedBusyIntervals = new TreeSet<>(Comparator.comparingLong(BusyInterval::getStart));
+    orderedBusyIntervals.addAll(busyIntervals);
   }
 
   /**
@@ -105,13 +115,13 @@ public class Scheduler {
 
     long lastEnd = dayStartEpochMilliseconds;
 
-    for (Event event : orderedCalendarEvents) {
-      long eventEnd = event.getEnd().getDateTime().getValue();
+    for (BusyInterval busyInterval : orderedBusyIntervals) {
+      long eventEnd = busyInterval.getEnd();
       if (eventEnd <= dayStartEpochMilliseconds) {
         continue;
       }
 
-      long eventStart = event.getStart().getDateTime().getValue();
+      long eventStart = busyInterval.getStart();
       if (eventStart >= dayEndEpochMilliseconds) {
         break;
       }
@@ -0,0 +1,163 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.api.concurrent.AdaptiveConcurrencyLimit;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Sheds the requests of an endpoint that are over its {@link AdaptiveConcurrencyLimit}, answering 503 with
+ * Retry-After, so that a burst on an expensive endpoint can't take the threads of the others.
+ * A request in async mode counts until its async processing completes, not until the filter returns.
+ */
+@WebFilter(urlPatterns = {"/authorization", "/user", "/load_tasks", "/schedule", SchedulePreviewServlet.PATH},
+    asyncSupported = true)
+public class AdmissionControlFilter implements Filter {
+  public static final String ENABLED_PROPERTY = "sps.admission.enabled";
+  public static final String RETRY_AFTER_PROPERTY = "sps.admission.retryAfterSeconds";
+  public static final int DEFAULT_RETRY_AFTER_SECONDS = 1;
+  private static final Logger logger = Logger.getLogger(AdmissionControlFilter.class.getName());
+  /**
+   * Limits by servlet path, bounded by the URL patterns of the filter.
+   */
+  private final ConcurrentMap<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+  private final Function<String, AdaptiveConcurrencyLimit> limitFactory;
+  private final boolean enabled;
+  private final int retryAfterSeconds;
+
+  public AdmissionControlFilter() {
+    this(AdaptiveConcurrencyLimit::fromSystemProperties,
+        Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true")),
+        Integer.getInteger(RETRY_AFTER_PROPERTY, DEFAULT_RETRY_AFTER_SECONDS));
+  }
+
+  /**
+   * @param limitFactory creates the limit of an endpoint from its path
+   * @param enabled whether the requests are limited, or all let through
+   * @param retryAfterSeconds time after which the rejected clients are told to retry
+   */
+  AdmissionControlFilter(Function<String, AdaptiveConcurrencyLimit> limitFactory, boolean enabled,
+      int retryAfterSeconds) {
+    this.limitFactory = limitFactory;
+    this.enabled = enabled;
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  @Override
+  public void init(FilterConfig filterConfig) {
+  }
+
+  @Override
+  public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+      throws IOException, ServletException {
+    if (!enabled) {
+      chain.doFilter(servletRequest, servletResponse);
+      return;
+    }
+    HttpServletRequest request = (HttpServletRequest) servletRequest;
+    HttpServletResponse response = (HttpServletResponse) servletResponse;
+    AdaptiveConcurrencyLimit limit = limits.computeIfAbsent(request.getServletPath(), limitFactory);
+    if (!limit.tryAcquire()) {
+      logger.fine("Rejected a request to " + limit.getName() + " over its limit of " + limit.getLimit());
+      response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      chain.doFilter(request, response);
+    } catch (IOException | ServletException | RuntimeException exception) {
+      limit.releaseIgnored();
+      throw exception;
+    }
+    if (request.isAsyncStarted()) {
+      // Completing the request before the filter returns only takes effect afterwards, so the listener is notified
+      request.getAsyncContext().addListener(new ReleasingListener(limit, start));
+    } else {
+      limit.release(getElapsedMillis(start));
+    }
+  }
+
+  @Override
+  public void destroy() {
+  }
+
+  private static long getElapsedMillis(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  /**
+   * Releases the request from its limit once its async processing is over.
+   */
+  private static class ReleasingListener implements AsyncListener {
+    private final AdaptiveConcurrencyLimit limit;
+    private final long start;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile boolean timedOut = false;
+
+    ReleasingListener(AdaptiveConcurrencyLimit limit, long start) {
+      this.limit = limit;
+      this.start = start;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      if (released.compareAndSet(false, true)) {
+        if (timedOut) {
+          limit.releaseDropped();
+        } else {
+          limit.release(getElapsedMillis(start));
+        }
+      }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      timedOut = true;
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      // The client went away, which says nothing about the load
+      if (released.compareAndSet(false, true)) {
+        limit.releaseIgnored();
+      }
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // Listeners are removed when the request is dispatched again, and must register again
+      event.getAsyncContext().addListener(this);
+    }
+  }
+}
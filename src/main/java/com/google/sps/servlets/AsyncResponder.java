@@ -0,0 +1,168 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.api.concurrent.ApiExecutors;
+import com.google.sps.api.concurrent.Deadline;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Sends the response of a request in async mode: the container thread is released while the API calls
+ * are in flight, and the response is written on an executor once their result is available.
+ * If the request times out first, it is answered with 503 and the future of the result is cancelled,
+ * so that the work it checks for cancellation stops.
+ */
+public class AsyncResponder {
+  /**
+   * Timeout of the requests that have no deadline.
+   */
+  public static final long DEFAULT_TIMEOUT_MILLIS = 60000;
+  private static final Logger logger = Logger.getLogger(AsyncResponder.class.getName());
+  private final Executor executor;
+
+  public AsyncResponder() {
+    this(ApiExecutors.getDefaultExecutor());
+  }
+
+  /**
+   * @param executor executor writing the responses
+   */
+  public AsyncResponder(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Writes a response from a result.
+   */
+  public interface ResponseWriter<T> {
+    void write(T result, HttpServletResponse response) throws IOException;
+  }
+
+  /**
+   * Writes the response of a request whose result failed or timed out, with the status it should have.
+   */
+  public interface FailureWriter {
+    void writeFailure(int status, HttpServletResponse response) throws IOException;
+  }
+
+  /**
+   * Sends the status as an error, unless the response is already committed.
+   */
+  public static final FailureWriter SEND_ERROR = (status, response) -> sendError(response, status);
+
+  /**
+   * Starts async mode and writes the response with the result of the future, which is started by the supplier.
+   * The supplier runs on the container thread, so it can still read the request.
+   */
+  public <T> void respond(HttpServletRequest request, HttpServletResponse response, Deadline deadline,
+      Supplier<CompletableFuture<? extends T>> resultSupplier, ResponseWriter<T> responseWriter) {
+    respond(request, response, deadline, resultSupplier, responseWriter, SEND_ERROR);
+  }
+
+  /**
+   * Responds like {@link #respond(HttpServletRequest, HttpServletResponse, Deadline, Supplier, ResponseWriter)},
+   * with the failures written by the failure writer, e.g. because part of the response was already sent.
+   */
+  public <T> void respond(HttpServletRequest request, HttpServletResponse response, Deadline deadline,
+      Supplier<CompletableFuture<? extends T>> resultSupplier, ResponseWriter<T> responseWriter,
+      FailureWriter failureWriter) {
+    AsyncContext asyncContext = request.startAsync(request, response);
+    long remainingMillis = deadline.getRemainingMillis();
+    asyncContext.setTimeout(remainingMillis == Long.MAX_VALUE ? DEFAULT_TIMEOUT_MILLIS : Math.max(remainingMillis, 1));
+    // Set by whichever of the result and the timeout comes first
+    AtomicBoolean responded = new AtomicBoolean();
+    // Set once the supplier started the work, which a timeout cancels
+    AtomicReference<CompletableFuture<? extends T>> resultReference = new AtomicReference<>();
+    asyncContext.addListener(new AsyncListener() {
+      @Override
+      public void onTimeout(AsyncEvent event) throws IOException {
+        if (responded.compareAndSet(false, true)) {
+          CompletableFuture<? extends T> resultFuture = resultReference.get();
+          if (resultFuture != null) {
+            resultFuture.cancel(false);
+          }
+          try {
+            failureWriter.writeFailure(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response);
+          } finally {
+            asyncContext.complete();
+          }
+        }
+      }
+
+      @Override
+      public void onError(AsyncEvent event) {
+        // The container completes the request
+        responded.set(true);
+      }
+
+      @Override
+      public void onComplete(AsyncEvent event) {
+      }
+
+      @Override
+      public void onStartAsync(AsyncEvent event) {
+      }
+    });
+
+    CompletableFuture<? extends T> resultFuture;
+    try {
+      resultFuture = resultSupplier.get();
+    } catch (RuntimeException exception) {
+      CompletableFuture<T> failedFuture = new CompletableFuture<>();
+      failedFuture.completeExceptionally(exception);
+      resultFuture = failedFuture;
+    }
+    resultReference.set(resultFuture);
+    if (responded.get()) {
+      // Timed out while the supplier was running
+      resultFuture.cancel(false);
+    }
+    resultFuture.whenCompleteAsync((result, exception) -> {
+      if (!responded.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        if (exception != null) {
+          logger.log(Level.WARNING, "Request failed", exception);
+          failureWriter.writeFailure(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, response);
+        } else {
+          responseWriter.write(result, response);
+        }
+      } catch (IOException | RuntimeException writeException) {
+        logger.log(Level.WARNING, "Could not write the response", writeException);
+      } finally {
+        asyncContext.complete();
+      }
+    }, executor);
+  }
+
+  private static void sendError(HttpServletResponse response, int status) throws IOException {
+    if (!response.isCommitted()) {
+      response.sendError(status);
+    }
+  }
+}
@@ -18,26 +18,90 @@ package com.google.sps.servlets;
 import com.google.api.client.auth.oauth2.AuthorizationCodeFlow;
 import com.google.api.client.extensions.appengine.auth.oauth2.AbstractAppEngineAuthorizationCodeServlet;
 import com.google.sps.api.authorization.AuthorizationRequester;
-import javax.servlet.RequestDispatcher;
+import com.google.sps.api.calendar.CalendarClientAdapter;
+import com.google.sps.api.calendar.CalendarWatcher;
+import com.google.sps.api.concurrent.ApiExecutors;
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.api.tasks.TasksClientAdapter;
+import com.google.sps.data.Bootstrap;
+import com.google.sps.data.TaskSummary;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
-@WebServlet("/authorization")
+/**
+ * Serves the index page once the user has authorized the app, with the user's email and tasks inlined,
+ * so that the first render doesn't wait for more requests.
+ */
+@WebServlet(value = "/authorization", asyncSupported = true)
 public class AuthorizationServlet extends AbstractAppEngineAuthorizationCodeServlet {
 
 
   public static final String INDEX_PATH = "WEB-INF/index.html";
+  /**
+   * Time the page waits for the tasks, after which it is sent without them and the page loads them itself.
+   */
+  private static final long BOOTSTRAP_TASKS_TIMEOUT_MILLIS = 5000;
+  private static final Logger logger = Logger.getLogger(AuthorizationServlet.class.getName());
+  private final AsyncResponder asyncResponder = new AsyncResponder();
+  private IndexPage indexPage;
+
+  @Override
+  public void init() throws ServletException {
+    try {
+      indexPage = IndexPage.load(getServletContext(), "/" + INDEX_PATH);
+    } catch (IOException exception) {
+      throw new ServletException(exception);
+    }
+  }
 
   @Override
   protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String email = AuthorizationRequester.getUserEmail();
+    String notificationsAddress = CalendarWatcher.getNotificationsAddress(request);
+    TasksClientAdapter tasksClientAdapter = new TasksClientAdapter(
+        ApiExecutors.getTasksExecutor(), Deadline.after(BOOTSTRAP_TASKS_TIMEOUT_MILLIS));
+    // The container thread is released while the tasks are loaded. The servlet serializes its requests
+    // until doGet returns, so waiting here would make every user wait for the others' tasks
+    asyncResponder.respond(request, response, Deadline.ofCurrentRequest(),
+        () -> tasksClientAdapter.getTasksOfAllListsAsync()
+            .thenApply(TaskSummary::ofListedTasks)
+            .handle((tasks, exception) -> {
+              if (exception != null) {
+                logger.log(Level.WARNING, "Could not load the tasks of the page", exception);
+              }
+              return new Bootstrap(email, tasks);
+            }),
+        (bootstrap, asyncResponse) -> {
+          asyncResponse.setContentType(MediaType.TEXT_HTML);
+          asyncResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+          // The page holds the user's data
+          asyncResponse.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-store");
+          asyncResponse.getWriter().print(indexPage.render(bootstrap));
+        });
+    // Runs while the tasks are loaded
+    if (CalendarWatcher.isEnabled()) {
+      watchCalendar(notificationsAddress);
+    }
+  }
+
+  /**
+   * Registers the push notifications of the user's calendar, so that its synced events stay fresh.
+   * A failure only disables the notifications, the page is served anyway.
+   */
+  private void watchCalendar(String notificationsAddress) {
     try {
-      RequestDispatcher requestDispatcher = request.getRequestDispatcher(INDEX_PATH);
-      requestDispatcher.forward(request, response);
-    } catch (ServletException exception) {
-      throw new IOException(exception);
+      CalendarWatcher.getDefault().ensureWatching(AuthorizationRequester.getUserId(),
+          new CalendarClientAdapter(), notificationsAddress);
+    } catch (IOException exception) {
+      logger.log(Level.WARNING, "Could not watch the user's calendar", exception);
     }
   }
 
@@ -48,6 +112,6 @@ public class AuthorizationServlet extends AbstractAppEngineAuthorizationCodeServ
 
   @Override
   protected AuthorizationCodeFlow initializeFlow() throws IOException {
-    return AuthorizationRequester.newFlow();
+    return AuthorizationRequester.getFlow();
   }
 }
@@ -0,0 +1,54 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.api.concurrent.ApiExecutors;
+import com.google.sps.api.concurrent.Bulkhead;
+import com.google.sps.converter.JsonConverter;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reports the load of the bulkheads of the downstream APIs on this instance, as JSON.
+ */
+@WebServlet("/admin/bulkheads")
+public class BulkheadMetricsServlet extends HttpServlet {
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    response.setContentType(MediaType.APPLICATION_JSON);
+    List<Map<String, Object>> metrics = ApiExecutors.getBulkheads().stream()
+        .map(BulkheadMetricsServlet::getMetrics)
+        .collect(Collectors.toList());
+    response.getWriter().println(JsonConverter.toJson(metrics));
+  }
+
+  private static Map<String, Object> getMetrics(Bulkhead bulkhead) {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("name", bulkhead.getName());
+    metrics.put("activeCount", bulkhead.getActiveCount());
+    metrics.put("queueDepth", bulkhead.getQueueDepth());
+    metrics.put("rejectedCount", bulkhead.getRejectedCount());
+    return metrics;
+  }
+}
@@ -0,0 +1,31 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.api.client.googleapis.extensions.servlet.notifications.NotificationServlet;
+import com.google.sps.api.authorization.AuthorizationRequester;
+import com.google.sps.api.calendar.CalendarWatcher;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+
+/**
+ * Receives the push notifications of the users' primary calendars.
+ */
+@WebServlet(CalendarWatcher.NOTIFICATIONS_PATH)
+public class CalendarNotificationServlet extends NotificationServlet {
+  public CalendarNotificationServlet() throws IOException {
+    super(AuthorizationRequester.getDataStoreFactory());
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.common.io.ByteStreams;
+import com.google.sps.converter.JsonConverter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.ServletContext;
+
+/**
+ * The HTML of the index page, into which the data of the first render is inlined as JSON,
+ * in a script element read by script.js.
+ */
+public class IndexPage {
+  public static final String BOOTSTRAP_ELEMENT_ID = "bootstrap";
+  private static final String HEAD_END = "</head>";
+  private final String html;
+
+  /**
+   * @param html page whose head the data is appended to
+   */
+  public IndexPage(String html) {
+    this.html = html;
+  }
+
+  /**
+   * Reads the page from the resources of the web app.
+   */
+  public static IndexPage load(ServletContext servletContext, String path) throws IOException {
+    try (InputStream inputStream = servletContext.getResourceAsStream(path)) {
+      if (inputStream == null) {
+        throw new FileNotFoundException(path);
+      }
+      return new IndexPage(new String(ByteStreams.toByteArray(inputStream), StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Returns the page with the data as JSON at the end of its head.
+   */
+  public String render(Object bootstrap) throws IOException {
+    String script = "<script id=\"" + BOOTSTRAP_ELEMENT_ID + "\" type=\"application/json\">"
+        + toInlineJson(bootstrap) + "</script>\n";
+    int headEnd = html.indexOf(HEAD_END);
+    if (headEnd < 0) {
+      return script + html;
+    }
+    return html.substring(0, headEnd) + script + html.substring(headEnd);
+  }
+
+  /**
+   * Converts the object into JSON that can be put in a script element: the characters that could close
+   * the element or start markup are escaped, which only happens inside strings.
+   */
+  static String toInlineJson(Object value) throws IOException {
+    return JsonConverter.toJson(value)
+        .replace("<", "\\u003c")
+        .replace(">", "\\u003e")
+        .replace("&", "\\u0026")
+        .replace("\u2028", "\\u2028")
+        .replace("\u2029", "\\u2029");
+  }
+}
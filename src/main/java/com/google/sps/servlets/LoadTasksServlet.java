@@ -14,45 +14,155 @@
 
 package com.google.sps.servlets;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.api.services.tasks.model.Task;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.hash.Hashing;
+import com.google.sps.api.concurrent.Deadline;
 import com.google.sps.api.tasks.TasksClientAdapter;
+import com.google.sps.api.tasks.TasksClientHelper;
+import com.google.sps.converter.JsonConverter;
+import com.google.sps.data.ListedTask;
+import com.google.sps.data.TaskSummary;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 /**
  * Loads tasks as JSON
  */
-@WebServlet("/load_tasks")
+@WebServlet(value = "/load_tasks", asyncSupported = true, loadOnStartup = 1)
 public class LoadTasksServlet extends HttpServlet {
 
-  private ObjectMapper objectMapper = new ObjectMapper();
+  /**
+   * Request parameter asking for the tasks of all the task lists instead of the most recent one.
+   */
+  private static final String ALL_LISTS_KEY = "allLists";
+  /**
+   * Changed whenever the JSON of the tasks changes, so that the ETags of the previous format don't match.
+   */
+  private static final String ETAG_VERSION = "summary-v1";
+  private final AsyncResponder asyncResponder = new AsyncResponder();
+
+  @Override
+  public void init() {
+    JsonConverter.warmUp(TaskSummary.class);
+  }
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    response.setContentType(MediaType.APPLICATION_JSON);
-    String tasksJson = tasksToJson(getTasks());
-    response.getWriter().println(tasksJson);
+    boolean allLists = Boolean.parseBoolean(request.getParameter(ALL_LISTS_KEY));
+    String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    TasksClientAdapter tasksClientAdapter = new TasksClientAdapter();
+    // The container thread is released while the tasks are loaded
+    asyncResponder.respond(request, response, Deadline.ofCurrentRequest(),
+        () -> tasksClientAdapter.getTasksListsAsync().thenCompose(tasksLists -> {
+          CompletableFuture<List<ListedTask>> tasksFuture;
+          if (allLists) {
+            tasksFuture = tasksClientAdapter.getTasksOfListsAsync(tasksLists);
+          } else {
+            String tasksListId = TasksClientHelper.getMostRecentTaskListId(tasksLists);
+            tasksFuture = tasksClientAdapter.getTasksAsync(tasksListId)
+                .thenApply(tasks -> TasksClientHelper.tagTasks(tasksListId, tasks));
+          }
+          return tasksFuture.thenApply(listedTasks -> {
+            // The tasks are only sent when they changed since the version the client has
+            String eTag = getETag(listedTasks, allLists);
+            if (matchesETag(ifNoneMatch, eTag)) {
+              return new TasksSnapshot(eTag, null);
+            }
+            // Only the fields rendered by the page are sent, with the task lists when they are all loaded
+            List<TaskSummary> tasks = allLists
+                ? TaskSummary.ofListedTasks(listedTasks)
+                : listedTasks.stream().map(listedTask -> TaskSummary.of(listedTask.getTask()))
+                    .collect(Collectors.toList());
+            return new TasksSnapshot(eTag, tasks);
+          });
+        }),
+        (snapshot, asyncResponse) -> {
+          asyncResponse.setHeader(HttpHeaders.ETAG, snapshot.eTag);
+          // The tasks can be changed from other apps, so the browser revalidates them on every load
+          asyncResponse.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+          if (snapshot.tasks == null) {
+            asyncResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+          }
+          asyncResponse.setContentType(MediaType.APPLICATION_JSON);
+          asyncResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+          writeTasksJson(snapshot.tasks, asyncResponse.getOutputStream());
+        });
+  }
+
+  /**
+   * The tasks loaded with the version they were loaded from, or only the version if the client already has it.
+   */
+  private static class TasksSnapshot {
+    private final String eTag;
+    private final List<TaskSummary> tasks;
+
+    TasksSnapshot(String eTag, List<TaskSummary> tasks) {
+      this.eTag = eTag;
+      this.tasks = tasks;
+    }
   }
 
   /**
-   * Converts the list of tasks into a JSON string.
+   * Returns the strong ETag of the served tasks: a hash of the IDs, task lists, update times and due dates
+   * of the tasks left by the due date filter. Editing a served task changes its update time, and adding,
+   * removing or filtering out a task changes the IDs. The tasks are loaded to compute it, so a match only
+   * saves sending them.
    */
-  private String tasksToJson(List<Task> tasks) throws JsonProcessingException {
-    return objectMapper.writeValueAsString(tasks);
+  static String getETag(List<ListedTask> listedTasks, boolean allLists) {
+    StringBuilder snapshot = new StringBuilder(ETAG_VERSION).append(allLists ? "|all" : "|recent");
+    for (ListedTask listedTask : listedTasks) {
+      snapshot.append('|').append(listedTask.getTaskListId())
+          .append('/').append(listedTask.getTask().getId())
+          .append('@').append(listedTask.getTask().getUpdated())
+          .append('>').append(listedTask.getTask().getDue());
+    }
+    return '"' + Hashing.sha256().hashString(snapshot, StandardCharsets.UTF_8).toString() + '"';
   }
 
   /**
-   * Returns the tasks belonging to the most recently updated list.
+   * Returns whether the If-None-Match header of the request holds the ETag.
    */
-  private List<Task> getTasks() throws IOException {
-    TasksClientAdapter tasksClientAdapter = new TasksClientAdapter();
-    return tasksClientAdapter.getTasksOfMostRecentList();
+  static boolean matchesETag(String ifNoneMatch, String eTag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String requestETag : ifNoneMatch.split(",")) {
+      String trimmedETag = requestETag.trim();
+      // If-None-Match uses the weak comparison
+      if (trimmedETag.startsWith("W/")) {
+        trimmedETag = trimmedETag.substring(2);
+      }
+      if (trimmedETag.equals("*") || trimmedETag.equals(eTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes the list of tasks as a JSON array straight to the stream, one task at a time,
+   * without building the whole payload in memory. The stream is closed.
+   */
+  static void writeTasksJson(List<TaskSummary> tasks, OutputStream outputStream) throws IOException {
+    try (JsonGenerator generator = JsonConverter.getObjectMapper().getFactory()
+        .createGenerator(outputStream, JsonEncoding.UTF8)) {
+      generator.writeStartArray();
+      for (TaskSummary task : tasks) {
+        generator.writeObject(task);
+      }
+      generator.writeEndArray();
+    }
   }
 }
@@ -0,0 +1,80 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.converter.JsonConverter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Streams objects as newline-delimited JSON, flushing each line as soon as it is written.
+ * Lines can be written concurrently from the API threads. Once writing fails or the writer is closed,
+ * the following lines are dropped, so a client that went away doesn't fail the work being reported.
+ */
+public class NdjsonWriter {
+  public static final String MEDIA_TYPE = "application/x-ndjson";
+  private static final Logger logger = Logger.getLogger(NdjsonWriter.class.getName());
+  private final HttpServletResponse response;
+  private boolean closed;
+
+  /**
+   * Sets the content type of the response, which must not be committed yet.
+   */
+  public NdjsonWriter(HttpServletResponse response) {
+    this.response = response;
+    response.setContentType(MEDIA_TYPE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+  }
+
+  /**
+   * Returns whether the client accepts a stream of newline-delimited JSON.
+   */
+  public static boolean isAccepted(String acceptHeader) {
+    return acceptHeader != null && acceptHeader.contains(MEDIA_TYPE);
+  }
+
+  /**
+   * Writes the object as a line of JSON and flushes it.
+   */
+  public synchronized void write(Object value) {
+    if (closed) {
+      return;
+    }
+    try {
+      PrintWriter writer = response.getWriter();
+      // Not println, whose line separator depends on the platform
+      writer.write(JsonConverter.toJson(value));
+      writer.write('\n');
+      writer.flush();
+      if (writer.checkError()) {
+        throw new IOException("Could not write to the response");
+      }
+    } catch (IOException | RuntimeException exception) {
+      logger.log(Level.WARNING, "Stopped streaming the response", exception);
+      closed = true;
+    }
+  }
+
+  /**
+   * Stops writing lines.
+   */
+  public synchronized void close() {
+    closed = true;
+  }
+}
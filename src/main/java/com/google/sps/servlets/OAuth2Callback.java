@@ -21,6 +21,7 @@ import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.extensions.appengine.auth.oauth2.AbstractAppEngineAuthorizationCodeCallbackServlet;
 import com.google.appengine.api.users.UserServiceFactory;
 import com.google.sps.api.authorization.AuthorizationRequester;
+import com.google.sps.api.authorization.AuthorizedClientsCache;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -34,6 +35,8 @@ public class OAuth2Callback extends AbstractAppEngineAuthorizationCodeCallbackSe
   @Override
   protected void onSuccess(HttpServletRequest req, HttpServletResponse resp, Credential credential)
       throws ServletException, IOException {
+    // The user's new credential replaces the cached one
+    AuthorizedClientsCache.getInstance().invalidate(getUserId(req));
     resp.sendRedirect("/");
   }
 
@@ -54,6 +57,6 @@ public class OAuth2Callback extends AbstractAppEngineAuthorizationCodeCallbackSe
 
   @Override
   protected AuthorizationCodeFlow initializeFlow() throws IOException {
-    return AuthorizationRequester.newFlow();
+    return AuthorizationRequester.getFlow();
   }
 }
@@ -0,0 +1,79 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.api.calendar.CalendarClientAdapter;
+import com.google.sps.api.concurrent.ApiExecutors;
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.api.tasks.TasksClientAdapter;
+import com.google.sps.data.ExtendedTask;
+import com.google.sps.jobs.DatastoreScheduleJobQueue;
+import com.google.sps.jobs.ScheduleJob;
+import com.google.sps.jobs.ScheduleJobQueue;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Runs the scheduling jobs submitted to /schedule with "Prefer: respond-async".
+ * It is requested by the Task Queue, and only administrators can call it otherwise.
+ */
+@WebServlet(ScheduleJobQueue.RUN_PATH)
+public class ScheduleJobRunnerServlet extends HttpServlet {
+  private final ScheduleJobQueue jobQueue = DatastoreScheduleJobQueue.getInstance();
+  private final ScheduleRunner scheduleRunner = ScheduleRunner.getInstance();
+
+  /**
+   * Runs the job of the Task Queue request until it is done, with the deadline of this request.
+   * The outcome is stored in the job, so the request succeeds even if the scheduling failed and isn't retried.
+   */
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String jobId = request.getParameter(ScheduleJobQueue.JOB_ID_KEY);
+    if (jobId == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+      return;
+    }
+    Deadline jobDeadline = ScheduleJobQueue.newJobDeadline();
+    jobQueue.run(jobId, jobDeadline, (scheduleRequest, job) -> {
+      TasksClientAdapter tasksClientAdapter =
+          new TasksClientAdapter(job.getUserId(), ApiExecutors.getTasksExecutor(), jobDeadline);
+      CalendarClientAdapter calendarClientAdapter =
+          new CalendarClientAdapter(job.getUserId(), ApiExecutors.getCalendarExecutor(), jobDeadline);
+      return scheduleRunner.scheduleAsync(scheduleRequest, job.getUserId(), tasksClientAdapter,
+          calendarClientAdapter, jobDeadline, trackProgress(job));
+    });
+    response.setStatus(HttpServletResponse.SC_OK);
+  }
+
+  /**
+   * Returns a listener counting the scheduled and saved tasks in the job.
+   */
+  private static ScheduleRunner.ProgressListener trackProgress(ScheduleJob job) {
+    return new ScheduleRunner.ProgressListener() {
+      @Override
+      public void onScheduled(ExtendedTask extendedTask) {
+        job.taskScheduled();
+      }
+
+      @Override
+      public void onSaved(ExtendedTask extendedTask, ScheduleRunner.SaveStatus status) {
+        job.taskSaved();
+      }
+    };
+  }
+}
@@ -0,0 +1,74 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.api.authorization.AuthorizationRequester;
+import com.google.sps.api.calendar.CalendarClientAdapter;
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.api.tasks.TasksClientAdapter;
+import com.google.sps.data.DateRange;
+import com.google.sps.data.ScheduleRequest;
+import com.google.sps.data.TaskSummary;
+import com.google.sps.scheduler.Scheduler;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Returns the placements proposed for the same request as /schedule, without saving them.
+ */
+@WebServlet(value = SchedulePreviewServlet.PATH, asyncSupported = true)
+public class SchedulePreviewServlet extends HttpServlet {
+  public static final String PATH = "/schedule/preview";
+  private final AsyncResponder asyncResponder = new AsyncResponder();
+  private final ScheduleRunner scheduleRunner = ScheduleRunner.getInstance();
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    ScheduleRequest scheduleRequest = ScheduleServletHelper.readScheduleRequest(request, response);
+    if (scheduleRequest == null) {
+      return;
+    }
+    String userId = AuthorizationRequester.getUserId();
+    Deadline deadline = Deadline.ofCurrentRequest();
+    TasksClientAdapter tasksClientAdapter = new TasksClientAdapter();
+    CalendarClientAdapter calendarClientAdapter = new CalendarClientAdapter();
+    asyncResponder.respond(request, response, deadline,
+        () -> previewAsync(scheduleRequest, userId, tasksClientAdapter, calendarClientAdapter),
+        ScheduleServletHelper::sendJsonResponse);
+  }
+
+  /**
+   * Schedules the selected tasks without saving them, and returns them with their proposed due dates.
+   * Once the inputs of the user are cached, nothing is read either.
+   */
+  CompletableFuture<List<TaskSummary>> previewAsync(ScheduleRequest scheduleRequest, String userId,
+      TasksClientAdapter tasksClientAdapter, CalendarClientAdapter calendarClientAdapter) {
+    return scheduleRunner.readInputsAsync(scheduleRequest, userId, tasksClientAdapter, calendarClientAdapter)
+        .thenApply(inputs -> {
+          Scheduler scheduler = new Scheduler(inputs.getBusyIntervals(), inputs.getTasks(), inputs.getTimeZone(),
+              scheduleRequest.getWorkingHours());
+          DateRange dateRange = inputs.getDateRange();
+          return scheduler.scheduleInRange(dateRange.getStartDate(), dateRange.getEndDate()).stream()
+              .map(TaskSummary::of)
+              .collect(Collectors.toList());
+        });
+  }
+}
@@ -0,0 +1,397 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.sps.api.calendar.CalendarClientAdapter;
+import com.google.sps.api.calendar.CalendarClientHelper;
+import com.google.sps.api.calendar.CalendarSyncCache;
+import com.google.sps.api.calendar.CalendarWatcher;
+import com.google.sps.api.concurrent.ApiExecutors;
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.api.concurrent.DeadlineExceededException;
+import com.google.sps.api.hedging.LatencyTracker;
+import com.google.sps.api.tasks.TasksClientAdapter;
+import com.google.sps.api.tasks.TasksClientHelper;
+import com.google.sps.converter.TimeConverter;
+import com.google.sps.data.BusyInterval;
+import com.google.sps.data.DateRange;
+import com.google.sps.data.ExtendedTask;
+import com.google.sps.data.ScheduleInputs;
+import com.google.sps.data.ScheduleMessage;
+import com.google.sps.data.ScheduleRequest;
+import com.google.sps.data.SelectedTask;
+import com.google.sps.data.WorkingHours;
+import com.google.sps.scheduler.ScheduleInputsCache;
+import com.google.sps.scheduler.Scheduler;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the inputs of a scheduling, schedules the selected tasks and saves them, for the scheduling servlets.
+ * The calls are made with the adapters of the request or of the job running the scheduling.
+ */
+class ScheduleRunner {
+  /**
+   * Latency of saving a scheduled task (task update and event insertion), used to skip
+   * the scheduling and the saves that could not complete before the deadline of the request.
+   */
+  private static final LatencyTracker SAVE_LATENCY = new LatencyTracker(200);
+  private static final int MIN_SAVE_LATENCY_SAMPLES = 10;
+  private static final double SAVE_LATENCY_PERCENTILE = 0.95;
+  private static final long DEFAULT_SAVE_MILLIS = 3000;
+  private static final ScheduleRunner INSTANCE = new ScheduleRunner();
+  private final ScheduleInputsCache inputsCache = ScheduleInputsCache.getInstance();
+
+  static {
+    // The previews must not reuse the busy intervals of a calendar that changed since they were read
+    CalendarSyncCache.getInstance().addListener(
+        (userId, changedIntervals) -> ScheduleInputsCache.getInstance().invalidate(userId));
+  }
+
+  static ScheduleRunner getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Receives the progress of a scheduling as it happens, on the threads of the API calls.
+   */
+  interface ProgressListener {
+    ProgressListener NONE = new ProgressListener() {};
+
+    default void onScheduled(ExtendedTask extendedTask) {
+    }
+
+    default void onSaved(ExtendedTask extendedTask, SaveStatus status) {
+    }
+  }
+
+  /**
+   * Schedules the selected tasks and saves them, without blocking.
+   * Cancelling the returned future stops the saves that have not started their next write.
+   * The inputs are read again instead of reusing the ones cached by a preview, since they could have changed
+   * in the meantime and the saves would then overwrite the tasks or book the same time twice.
+   *
+   * @param userId user whose synced calendar events are used once synced again, or null to fetch them
+   * @param progressListener notified of each scheduled task and of each save as it completes
+   */
+  CompletableFuture<ScheduleMessage> scheduleAsync(ScheduleRequest scheduleRequest, String userId,
+      TasksClientAdapter tasksClientAdapter, CalendarClientAdapter calendarClientAdapter, Deadline deadline,
+      ProgressListener progressListener) {
+    WorkingHours workingHours = scheduleRequest.getWorkingHours();
+    CompletableFuture<ScheduleMessage> resultFuture = new CompletableFuture<>();
+    if (userId != null && CalendarWatcher.isEnabled()) {
+      // The changes whose notification is late or lost are synced before the scheduling
+      CalendarSyncCache.getInstance().markStale(userId);
+    }
+    fetchInputsAsync(scheduleRequest, userId, tasksClientAdapter, calendarClientAdapter).thenCompose(inputs -> {
+      String timeZone = inputs.getTimeZone();
+      DateRange dateRange = inputs.getDateRange();
+
+      // Schedules only if there is still the time to save the tasks
+      long saveMillis = estimateSaveMillis();
+      if (!deadline.hasTimeFor(saveMillis)) {
+        throw new CompletionException(new DeadlineExceededException());
+      }
+      Scheduler scheduler = new Scheduler(inputs.getBusyIntervals(), inputs.getTasks(), timeZone, workingHours);
+      List<ExtendedTask> scheduledExtendedTasks =
+          scheduler.scheduleInRange(dateRange.getStartDate(), dateRange.getEndDate());
+      scheduledExtendedTasks.forEach(progressListener::onScheduled);
+
+      // Saves each task in its own list together with its event, the saves run concurrently
+      return ApiExecutors.allAsList(scheduledExtendedTasks.stream()
+          .map(extendedTask -> saveScheduledTaskAsync(
+              extendedTask, timeZone, tasksClientAdapter, calendarClientAdapter, deadline, saveMillis,
+              resultFuture::isCancelled)
+              .thenApply(status -> {
+                progressListener.onSaved(extendedTask, status);
+                return status;
+              }))
+          .collect(Collectors.toList()))
+          .thenApply(saveStatuses -> {
+            if (userId != null) {
+              // The saved tasks and the inserted events are read again by the next preview
+              inputsCache.invalidate(userId);
+              if (CalendarWatcher.isEnabled()) {
+                // The inserted events are synced before the next preview, even if their notification is late
+                CalendarSyncCache.getInstance().markStale(userId);
+              }
+            }
+            return createScheduleMessage(scheduledExtendedTasks, saveStatuses);
+          });
+    }).whenComplete((message, exception) -> {
+      if (exception != null) {
+        resultFuture.completeExceptionally(exception);
+      } else {
+        resultFuture.complete(message);
+      }
+    });
+    return resultFuture;
+  }
+
+  /**
+   * Reads the inputs of a preview, reusing the ones cached for the user by a recent preview when they
+   * hold the selected tasks and cover the range. The inputs are only cached when the task lists are known.
+   *
+   * @param userId user whose inputs are cached and whose synced calendar events are used, or null to fetch them
+   */
+  CompletableFuture<ScheduleInputs> readInputsAsync(ScheduleRequest scheduleRequest, String userId,
+      TasksClientAdapter tasksClientAdapter, CalendarClientAdapter calendarClientAdapter) {
+    boolean cacheable = userId != null && scheduleRequest.hasTaskListIds();
+    if (cacheable) {
+      ScheduleInputs cachedInputs = inputsCache.get(userId);
+      ScheduleInputs reusedInputs = cachedInputs == null ? null : reuseInputs(cachedInputs, scheduleRequest);
+      if (reusedInputs != null) {
+        return CompletableFuture.completedFuture(reusedInputs);
+      }
+    }
+    return fetchInputsAsync(scheduleRequest, userId, tasksClientAdapter, calendarClientAdapter)
+        .thenApply(inputs -> {
+          if (cacheable) {
+            inputsCache.put(userId, inputs);
+          }
+          return inputs;
+        });
+  }
+
+  /**
+   * Returns the selected tasks with the requested durations, together with the cached time zone and
+   * busy intervals, or null if a task is not cached or the busy intervals don't cover the requested range.
+   */
+  ScheduleInputs reuseInputs(ScheduleInputs cachedInputs, ScheduleRequest scheduleRequest) {
+    DateRange dateRange = getDateRange(
+        scheduleRequest.getStartDate(), scheduleRequest.getEndDate(), cachedInputs.getTimeZone());
+    if (!cachedInputs.covers(dateRange)) {
+      return null;
+    }
+    List<ExtendedTask> tasks = new ArrayList<>();
+    for (SelectedTask selectedTask : scheduleRequest.getTasks()) {
+      ExtendedTask cachedTask = cachedInputs.findTask(selectedTask.getTaskListId(), selectedTask.getId());
+      if (cachedTask == null) {
+        return null;
+      }
+      tasks.add(new ExtendedTask(cachedTask.getTask(), selectedTask.getDuration(), selectedTask.getTaskListId()));
+    }
+    return new ScheduleInputs(tasks, cachedInputs.getTimeZone(), dateRange, cachedInputs.getBusyIntervals());
+  }
+
+  /**
+   * Fetches the selected tasks, the time zone and the busy intervals of the range.
+   */
+  private CompletableFuture<ScheduleInputs> fetchInputsAsync(ScheduleRequest scheduleRequest, String userId,
+      TasksClientAdapter tasksClientAdapter, CalendarClientAdapter calendarClientAdapter) {
+    // The reads form two independent chains that run concurrently:
+    // (task lists ->) selected tasks, and time zone -> date range -> calendar events.
+    // The time zone is fetched once and shared by the whole request.
+    CompletableFuture<List<ExtendedTask>> tasksToScheduleFuture;
+    if (scheduleRequest.hasTaskListIds()) {
+      tasksToScheduleFuture = getSelectedTasksExtendedAsync(scheduleRequest.getTasks(), null, tasksClientAdapter);
+    } else {
+      tasksToScheduleFuture = tasksClientAdapter.getTasksListsAsync()
+          .thenApply(TasksClientHelper::getMostRecentTaskListId)
+          .thenCompose(tasksListId -> getSelectedTasksExtendedAsync(
+              scheduleRequest.getTasks(), tasksListId, tasksClientAdapter));
+    }
+
+    CompletableFuture<String> timeZoneFuture = calendarClientAdapter.getPrimaryCalendarTimeZoneAsync();
+    CompletableFuture<DateRange> dateRangeFuture = timeZoneFuture.thenApply(
+        timeZone -> getDateRange(scheduleRequest.getStartDate(), scheduleRequest.getEndDate(), timeZone));
+    String syncedUserId = CalendarWatcher.isEnabled() ? userId : null;
+    CompletableFuture<List<BusyInterval>> busyIntervalsFuture = dateRangeFuture.thenCompose(
+        dateRange -> getBusyIntervalsAsync(calendarClientAdapter, syncedUserId, dateRange, timeZoneFuture.join()));
+
+    return CompletableFuture.allOf(tasksToScheduleFuture, busyIntervalsFuture).thenApply(ignored ->
+        new ScheduleInputs(tasksToScheduleFuture.join(), timeZoneFuture.join(), dateRangeFuture.join(),
+            busyIntervalsFuture.join()));
+  }
+
+  /**
+   * Outcome of saving a scheduled task.
+   */
+  enum SaveStatus {
+    /**
+     * The task and its event were saved.
+     */
+    COMMITTED,
+    /**
+     * The task was saved, but not its event.
+     */
+    INCOMPLETE,
+    /**
+     * Nothing was saved.
+     */
+    SKIPPED
+  }
+
+  /**
+   * Returns the time needed to save a scheduled task, based on the latency of the previous saves.
+   */
+  static long estimateSaveMillis() {
+    if (SAVE_LATENCY.getSampleCount() < MIN_SAVE_LATENCY_SAMPLES) {
+      return DEFAULT_SAVE_MILLIS;
+    }
+    return SAVE_LATENCY.getPercentile(SAVE_LATENCY_PERCENTILE);
+  }
+
+  /**
+   * Saves the due date of the task and inserts its event, unless there is not enough time left
+   * to do both before the deadline. Each write is only started if the scheduling is not cancelled
+   * and the deadline has not passed, since the client was then told that the scheduling failed.
+   *
+   * @param cancelled whether the scheduling was cancelled
+   */
+  CompletableFuture<SaveStatus> saveScheduledTaskAsync(ExtendedTask extendedTask, String timeZone,
+      TasksClientAdapter tasksClientAdapter, CalendarClientAdapter calendarClientAdapter,
+      Deadline deadline, long saveMillis, BooleanSupplier cancelled) {
+    Event event = createEventFromExtendedTask(extendedTask, timeZone);
+    // Each call runs in the bulkhead of its API
+    CompletableFuture<Long> taskSavedFuture = ApiExecutors.supplyAsync(() -> {
+      // Checked when the save starts, since it can wait for a free thread
+      if (cancelled.getAsBoolean() || !deadline.hasTimeFor(saveMillis)) {
+        throw new DeadlineExceededException();
+      }
+      long saveStart = System.currentTimeMillis();
+      tasksClientAdapter.patchTaskDue(extendedTask.getTaskListId(), extendedTask.getId(), extendedTask.getDue());
+      return saveStart;
+    }, ApiExecutors.getTasksExecutor());
+    return taskSavedFuture
+        .thenCompose(saveStart -> ApiExecutors.runAsync(() -> {
+              if (cancelled.getAsBoolean() || deadline.isExpired()) {
+                throw new DeadlineExceededException();
+              }
+              calendarClientAdapter.insertEventToPrimary(event);
+            }, ApiExecutors.getCalendarExecutor())
+            .handle((ignored, exception) -> {
+              if (exception != null) {
+                return SaveStatus.INCOMPLETE;
+              }
+              SAVE_LATENCY.record(System.currentTimeMillis() - saveStart);
+              return SaveStatus.COMMITTED;
+            }))
+        .exceptionally(exception -> SaveStatus.SKIPPED);
+  }
+
+  /**
+   * Returns the range of days to schedule on.
+   * If the dates were not received or are in the wrong format, it returns tomorrow in the time zone.
+   */
+  DateRange getDateRange(String startDateString, String endDateString, String timeZone) {
+    try {
+      return new DateRange(LocalDate.parse(startDateString), LocalDate.parse(endDateString));
+    } catch (DateTimeParseException | NullPointerException exception) {
+      LocalDate tomorrow = CalendarClientAdapter.getTomorrowStart(timeZone).toLocalDate();
+      return new DateRange(tomorrow, tomorrow);
+    }
+  }
+
+  /**
+   * Returns the intervals blocked by the accepted events, from the start of the first day
+   * to the end of the last day of the range.
+   * When the calendar is watched (userId is not null), the synced intervals are used if they cover the range.
+   */
+  private CompletableFuture<List<BusyInterval>> getBusyIntervalsAsync(
+      CalendarClientAdapter calendarClientAdapter, String userId, DateRange dateRange, String timeZone) {
+    ZoneId zoneId = ZoneId.of(timeZone);
+    ZonedDateTime zonedStartpoint = dateRange.getStartDate().atStartOfDay(zoneId);
+    DateTime startDateTime = new DateTime(zonedStartpoint.toInstant().toEpochMilli());
+    ZonedDateTime zonedEndpoint = dateRange.getEndDate().atStartOfDay(zoneId).plusDays(1);
+    DateTime endDateTime = new DateTime(zonedEndpoint.toInstant().toEpochMilli());
+    if (userId == null) {
+      return calendarClientAdapter.getBusyIntervalsInTimerangeAsync(startDateTime, endDateTime);
+    }
+    return ApiExecutors.supplyAsync(() -> {
+      List<BusyInterval> busyIntervals = CalendarSyncCache.getInstance().getBusyIntervals(
+          userId, startDateTime.getValue(), endDateTime.getValue(), calendarClientAdapter);
+      if (busyIntervals == null) {
+        busyIntervals = calendarClientAdapter.getBusyIntervalsInTimerange(startDateTime, endDateTime);
+      }
+      return busyIntervals;
+    }, ApiExecutors.getCalendarExecutor());
+  }
+
+  /**
+   * Fetches the selected tasks concurrently and returns them with their durations.
+   * The tasks whose id or task list doesn't exist are skipped, any other failure fails the fetch.
+   *
+   * @param defaultTasksListId task list of the tasks without one
+   */
+  CompletableFuture<List<ExtendedTask>> getSelectedTasksExtendedAsync(
+      List<SelectedTask> selectedTasks, String defaultTasksListId, TasksClientAdapter tasksClientAdapter) {
+    List<CompletableFuture<ExtendedTask>> extendedTasks = new ArrayList<>();
+    for (SelectedTask selectedTask : selectedTasks) {
+      String tasksListId = selectedTask.getTaskListId() == null ? defaultTasksListId : selectedTask.getTaskListId();
+      extendedTasks.add(tasksClientAdapter.getTaskAsync(tasksListId, selectedTask.getId())
+          .thenApply(task -> new ExtendedTask(task, selectedTask.getDuration(), tasksListId))
+          .exceptionally(exception -> {
+            if (TasksClientHelper.isNotFound(exception)) {
+              return null;
+            }
+            throw exception instanceof CompletionException
+                ? (CompletionException) exception : new CompletionException(exception);
+          }));
+    }
+
+    return ApiExecutors.allAsList(extendedTasks)
+        .thenApply(tasks -> tasks.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+  }
+
+  /**
+   * Creates a calendar event with the same title, description,
+   * duration and start time of the extended task.
+   */
+  Event createEventFromExtendedTask(ExtendedTask extendedTask, String timeZone) {
+    DateTime startTime = new DateTime(extendedTask.getDue());
+    long endEpoch = startTime.getValue() + extendedTask.getDuration();
+    DateTime endTime = TimeConverter.epochToDateTime(endEpoch, timeZone);
+
+    return CalendarClientHelper.createPrivateEventWithSummaryAndDescription(
+        startTime, endTime, timeZone, extendedTask.getTitle(), extendedTask.getNotes());
+  }
+
+  /**
+   * Returns the number of saved tasks, and the ids of the tasks by outcome.
+   * The statuses are in the same order as the tasks.
+   */
+  private ScheduleMessage createScheduleMessage(List<ExtendedTask> scheduledTasks, List<SaveStatus> saveStatuses) {
+    Map<SaveStatus, List<String>> taskIdsByStatus = new EnumMap<>(SaveStatus.class);
+    for (SaveStatus status : SaveStatus.values()) {
+      taskIdsByStatus.put(status, new ArrayList<>());
+    }
+    for (int i = 0; i < scheduledTasks.size(); i++) {
+      taskIdsByStatus.get(saveStatuses.get(i)).add(scheduledTasks.get(i).getTask().getId());
+    }
+
+    List<String> committedTaskIds = taskIdsByStatus.get(SaveStatus.COMMITTED);
+    int notCommitted = scheduledTasks.size() - committedTaskIds.size();
+    String message = committedTaskIds.size() + " tasks inserted";
+    if (notCommitted > 0) {
+      message += ", " + notCommitted + " could not be saved in time";
+    }
+    return new ScheduleMessage(message, committedTaskIds,
+        taskIdsByStatus.get(SaveStatus.INCOMPLETE), taskIdsByStatus.get(SaveStatus.SKIPPED));
+  }
+}
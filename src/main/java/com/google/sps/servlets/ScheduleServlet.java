@@ -14,198 +14,132 @@
 
 package com.google.sps.servlets;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.api.client.util.DateTime;
-import com.google.api.services.calendar.model.Event;
-import com.google.api.services.tasks.model.Task;
+import com.google.sps.api.authorization.AuthorizationRequester;
 import com.google.sps.api.calendar.CalendarClientAdapter;
-import com.google.sps.api.calendar.CalendarClientHelper;
+import com.google.sps.api.concurrent.Deadline;
 import com.google.sps.api.tasks.TasksClientAdapter;
-import com.google.sps.api.tasks.TasksClientHelper;
-import com.google.sps.converter.TimeConverter;
+import com.google.sps.converter.ScheduleRequestParser;
 import com.google.sps.data.ExtendedTask;
-import com.google.sps.data.ScheduleMessage;
-import com.google.sps.data.WorkingHours;
-import com.google.sps.scheduler.Scheduler;
+import com.google.sps.data.ScheduleProgress;
+import com.google.sps.data.ScheduleRequest;
+import com.google.sps.jobs.DatastoreScheduleJobQueue;
+import com.google.sps.jobs.ScheduleJob;
+import com.google.sps.jobs.ScheduleJobQueue;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.ws.rs.core.MediaType;
-
-import static com.google.sps.converter.TimeConverter.minsToMillis;
+import javax.ws.rs.core.HttpHeaders;
 
 /**
  * Schedules tasks on tomorrow.
+ * The request is a form, or a JSON body in the format read by {@link ScheduleRequestParser}.
+ * The same request sent to {@link SchedulePreviewServlet} returns the proposed placements without saving them.
+ * The scheduling jobs submitted with "Prefer: respond-async" are run by {@link ScheduleJobRunnerServlet}.
  */
-@WebServlet("/schedule")
+@WebServlet(value = "/schedule", asyncSupported = true)
 public class ScheduleServlet extends HttpServlet {
+  private static final Logger logger = Logger.getLogger(ScheduleServlet.class.getName());
 
-  private static final String TASK_ID_LIST_KEY = "taskId";
-  private static final String TASK_DURATION_LIST_KEY = "taskDuration";
-  private ObjectMapper objectMapper = new ObjectMapper();
+  /**
+   * Header of a request asking to be answered with a job instead of the result, when it contains respond-async.
+   */
+  private static final String PREFER_HEADER = "Prefer";
+  private static final String RESPOND_ASYNC = "respond-async";
+  private final AsyncResponder asyncResponder = new AsyncResponder();
+  private final ScheduleJobQueue jobQueue = DatastoreScheduleJobQueue.getInstance();
+  private final ScheduleRunner scheduleRunner = ScheduleRunner.getInstance();
 
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    if (!request.getParameterMap().containsKey(TASK_ID_LIST_KEY)) {
-      badRequestResponse(response, "Select some tasks to schedule.");
+    ScheduleRequest scheduleRequest = ScheduleServletHelper.readScheduleRequest(request, response);
+    if (scheduleRequest == null) {
       return;
     }
+    String userId = AuthorizationRequester.getUserId();
 
-    // Scheduler parameters
-    WorkingHours workingHours = getWorkingHours(request, response);
-    if (workingHours == null) {
+    if (isRespondAsyncPreferred(request)) {
+      submitJob(scheduleRequest, userId, response);
       return;
     }
 
+    // Every call of the request is bounded by the time the request has left
+    Deadline deadline = Deadline.ofCurrentRequest();
     TasksClientAdapter tasksClientAdapter = new TasksClientAdapter();
-    String tasksListId = TasksClientHelper.getMostRecentTaskListId(
-        tasksClientAdapter.getTasksLists());
-
-    List<ExtendedTask> tasksToSchedule = getSelectedTasksExtended(
-        request.getParameterValues(TASK_ID_LIST_KEY),
-        request.getParameterValues(TASK_DURATION_LIST_KEY),
-        tasksClientAdapter, tasksListId);
-
     CalendarClientAdapter calendarClientAdapter = new CalendarClientAdapter();
-    String timeZone = calendarClientAdapter.getPrimaryCalendarTimeZone();
-    ZoneId zoneId = ZoneId.of(timeZone);
-
-
-    String startDateString = request.getParameter("startDate");
-    String endDateString = request.getParameter("endDate");
-    LocalDate startDate, endDate;
-    try {
-      startDate = LocalDate.parse(startDateString);
-      endDate = LocalDate.parse(endDateString);
-    } catch (DateTimeParseException | NullPointerException exception) { //If date was not received or is in wrong format, schedule for tomorrow
-      startDate = calendarClientAdapter.getUsersTomorrowStart().toLocalDate();
-      endDate = startDate;
-    }
-
-    ZonedDateTime zonedStartpoint = startDate.atStartOfDay(zoneId);
-    DateTime startDateTime = new DateTime(zonedStartpoint.toInstant().toEpochMilli());
-    ZonedDateTime zonedEndpoint = endDate.atStartOfDay(zoneId).plusDays(1);
-    DateTime endDateTime = new DateTime(zonedEndpoint.toInstant().toEpochMilli());
 
-    List<Event> calendarEvents = calendarClientAdapter.getAcceptedEventsInTimerange(startDateTime, endDateTime);
-
-    // Schedules
-    Scheduler scheduler = new Scheduler(calendarEvents, tasksToSchedule, timeZone, workingHours);
-    List<ExtendedTask> scheduledExtendedTasks = scheduler.scheduleInRange(startDate, endDate);
-
-    List<Task> scheduledTasks = scheduledExtendedTasks.stream().map(ExtendedTask::getTask).collect(Collectors.toList());
-    // Updates Tasks and Calendar
-    tasksClientAdapter.updateTasks(tasksListId, scheduledTasks);
-    calendarClientAdapter.insertEventsToPrimary(
-        createEventsFromExtendedTasks(scheduledExtendedTasks, timeZone));
-
-    sendJsonResponse(response, scheduledTasks.size() + " tasks inserted");
-  }
-
-  /**
-   * Returns the task objects having the ids contained in the array nested into a wrapper
-   * class that also contains the durations.
-   * tasksIds and tasksDurations must have the same length.
-   */
-  List<ExtendedTask> getSelectedTasksExtended(
-      String[] tasksIds,  String[] tasksDurations, TasksClientAdapter tasksClientAdapter, String tasksListId) {
-    assert tasksIds.length == tasksDurations.length : "tasksIds and tasksDurations have different length";
-
-    List<ExtendedTask> extendedTasks = new ArrayList<>();
-    for (int i = 0; i < tasksIds.length; i++) {
-      try {
-        Task task = tasksClientAdapter.getTask(tasksListId, tasksIds[i]);
-        extendedTasks.add(
-            new ExtendedTask(task, minsToMillis(tasksDurations[i])));
-      } catch (IOException exception) {
-        // Continue the loop if the id doesn't exist
-      }
+    // The container thread is released while the calls are in flight
+    if (NdjsonWriter.isAccepted(request.getHeader(HttpHeaders.ACCEPT))) {
+      // Streams each scheduled task and each save as they happen, then the final message or the failure
+      NdjsonWriter ndjsonWriter = new NdjsonWriter(response);
+      asyncResponder.respond(request, response, deadline,
+          () -> scheduleRunner.scheduleAsync(scheduleRequest, userId, tasksClientAdapter, calendarClientAdapter,
+              deadline, streamProgress(ndjsonWriter)),
+          (message, asyncResponse) -> {
+            ndjsonWriter.write(ScheduleProgress.done(message));
+            ndjsonWriter.close();
+          },
+          (status, asyncResponse) -> {
+            // Once lines were sent the status can't change, the stream ends with the failure instead
+            if (asyncResponse.isCommitted()) {
+              ndjsonWriter.write(ScheduleProgress.failed(status));
+              ndjsonWriter.close();
+            } else {
+              AsyncResponder.SEND_ERROR.writeFailure(status, asyncResponse);
+            }
+          });
+      return;
     }
-
-    return extendedTasks;
+    asyncResponder.respond(request, response, deadline,
+        () -> scheduleRunner.scheduleAsync(scheduleRequest, userId, tasksClientAdapter, calendarClientAdapter,
+            deadline, ScheduleRunner.ProgressListener.NONE),
+        ScheduleServletHelper::sendJsonResponse);
   }
 
   /**
-   * Creates a calendar event for each extended task with the same title, description,
-   * duration and start time.
+   * Returns whether the client asked to get a job to poll instead of waiting for the scheduling.
    */
-  List<Event> createEventsFromExtendedTasks(List<ExtendedTask> extendedTasks, String timeZone) {
-    List<Event> calendarEvents = new ArrayList<>();
-
-    for (ExtendedTask extendedTask : extendedTasks) {
-      calendarEvents.add(
-          createEventFromExtendedTask(extendedTask, timeZone));
-    }
-
-    return calendarEvents;
+  private static boolean isRespondAsyncPreferred(HttpServletRequest request) {
+    String prefer = request.getHeader(PREFER_HEADER);
+    return prefer != null && prefer.contains(RESPOND_ASYNC);
   }
 
   /**
-   * Creates a calendar event with the same title, description,
-   * duration and start time of the extended task.
+   * Enqueues the scheduling as a job and answers 202 with the job, whose status is polled at its Location.
    */
-  Event createEventFromExtendedTask(ExtendedTask extendedTask, String timeZone) {
-    DateTime startTime = new DateTime(extendedTask.getDue());
-    long endEpoch = startTime.getValue() + extendedTask.getDuration();
-    DateTime endTime = TimeConverter.epochToDateTime(endEpoch, timeZone);
-
-    return CalendarClientHelper.createPrivateEventWithSummaryAndDescription(
-        startTime, endTime, timeZone, extendedTask.getTitle(), extendedTask.getNotes());
-  }
-
-  private void sendJsonResponse(HttpServletResponse response, String responseMessage) throws IOException {
-    response.setContentType(MediaType.APPLICATION_JSON);
-    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+  private void submitJob(ScheduleRequest scheduleRequest, String userId, HttpServletResponse response)
+      throws IOException {
+    ScheduleJob job;
     try {
-      ScheduleMessage messageObject = new ScheduleMessage(responseMessage);
-      String jsonMessage = objectMapper.writeValueAsString(messageObject);
-      response.getWriter().println(jsonMessage);
-    } catch (JsonProcessingException exception) {
-      throw new IOException(exception);
+      job = jobQueue.submit(userId, scheduleRequest);
+    } catch (IOException exception) {
+      logger.log(Level.WARNING, "The scheduling job could not be submitted", exception);
+      response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      ScheduleServletHelper.sendJsonResponse(response, "The scheduling could not be started, try again later.");
+      return;
     }
+    response.setStatus(HttpServletResponse.SC_ACCEPTED);
+    response.setHeader(HttpHeaders.LOCATION, ScheduleStatusServlet.getStatusPath(job.getId()));
+    ScheduleServletHelper.sendJsonResponse(job, response);
   }
 
   /**
-   * Creates response for a bad request by setting the status code and a message.
+   * Returns a listener writing the progress as lines of the stream.
    */
-  private void badRequestResponse(HttpServletResponse response, String message) throws IOException {
-    response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-    sendJsonResponse(response, message);
-  }
-
-  /**
-   * Returns the working hours contained in the request and checks if they are correct.
-   * If not, it returns null and sets the response as bad request.
-   */
-  private WorkingHours getWorkingHours(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    WorkingHours workingHours = null;
-
-    try {
-      int startHour = Integer.parseInt(request.getParameter("start-hour"));
-      int startMin = Integer.parseInt(request.getParameter("start-min"));
-      int endHour = Integer.parseInt(request.getParameter("end-hour"));
-      int endMin = Integer.parseInt(request.getParameter("end-min"));
-
-      if (endHour < startHour || (startHour == endHour && endMin <= startMin)) {
-        badRequestResponse(response, "Select valid working hours (end time must be greater than start time)");
-      } else {
-        workingHours = new WorkingHours(startHour, startMin, endHour, endMin);
+  private static ScheduleRunner.ProgressListener streamProgress(NdjsonWriter ndjsonWriter) {
+    return new ScheduleRunner.ProgressListener() {
+      @Override
+      public void onScheduled(ExtendedTask extendedTask) {
+        ndjsonWriter.write(ScheduleProgress.scheduled(extendedTask.getTask().getId(), extendedTask.getDue()));
       }
-    } catch(NumberFormatException exception) {
-      badRequestResponse(response, "Working hours format is incorrect");
-    }
 
-    return workingHours;
+      @Override
+      public void onSaved(ExtendedTask extendedTask, ScheduleRunner.SaveStatus status) {
+        ndjsonWriter.write(ScheduleProgress.saved(extendedTask.getTask().getId(), status.name()));
+      }
+    };
   }
 }
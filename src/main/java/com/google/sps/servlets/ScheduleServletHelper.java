@@ -0,0 +1,175 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.sps.converter.InvalidRequestException;
+import com.google.sps.converter.JsonConverter;
+import com.google.sps.converter.ScheduleRequestParser;
+import com.google.sps.data.ScheduleMessage;
+import com.google.sps.data.ScheduleRequest;
+import com.google.sps.data.SelectedTask;
+import com.google.sps.data.WorkingHours;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Provides the reading of the scheduling requests and the JSON responses shared by the scheduling servlets.
+ */
+class ScheduleServletHelper {
+  private static final String TASK_ID_LIST_KEY = "taskId";
+  private static final String TASK_DURATION_LIST_KEY = "taskDuration";
+  /**
+   * Optional list of the task lists the selected tasks belong to, in the same order as their ids.
+   * If it is missing, all the tasks are taken from the most recently updated list.
+   */
+  private static final String TASK_LIST_ID_LIST_KEY = "taskListId";
+
+  /**
+   * Returns the request sent as a form, or as a JSON body in the format read by {@link ScheduleRequestParser}.
+   * If it is not valid, it returns null and sets the response as bad request.
+   */
+  static ScheduleRequest readScheduleRequest(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (!isJsonRequest(request)) {
+      return readFormRequest(request, response);
+    }
+    try {
+      return ScheduleRequestParser.parse(request.getInputStream());
+    } catch (InvalidRequestException exception) {
+      badRequestResponse(response, exception.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Returns whether the request is sent as a JSON body instead of a form.
+   */
+  private static boolean isJsonRequest(HttpServletRequest request) {
+    String contentType = request.getContentType();
+    return contentType != null && contentType.startsWith(MediaType.APPLICATION_JSON);
+  }
+
+  /**
+   * Returns the request sent as a form, with the parallel lists of task ids, durations and optionally task lists.
+   * If it is not valid, it returns null and sets the response as bad request.
+   */
+  private static ScheduleRequest readFormRequest(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (!request.getParameterMap().containsKey(TASK_ID_LIST_KEY)) {
+      badRequestResponse(response, "Select some tasks to schedule.");
+      return null;
+    }
+
+    // Scheduler parameters
+    WorkingHours workingHours = getWorkingHours(request, response);
+    if (workingHours == null) {
+      return null;
+    }
+
+    String[] tasksIds = request.getParameterValues(TASK_ID_LIST_KEY);
+    String[] tasksDurations = request.getParameterValues(TASK_DURATION_LIST_KEY);
+    String[] tasksListIds = request.getParameterValues(TASK_LIST_ID_LIST_KEY);
+    if (tasksDurations == null || tasksDurations.length != tasksIds.length) {
+      badRequestResponse(response, "Each selected task needs a duration");
+      return null;
+    }
+    if (tasksListIds != null && tasksListIds.length != tasksIds.length) {
+      badRequestResponse(response, "Each selected task needs a task list");
+      return null;
+    }
+    List<SelectedTask> tasks;
+    try {
+      tasks = getSelectedTasks(tasksIds, tasksDurations, tasksListIds);
+    } catch (InvalidRequestException exception) {
+      badRequestResponse(response, exception.getMessage());
+      return null;
+    }
+    return new ScheduleRequest(tasks, request.getParameter("startDate"), request.getParameter("endDate"),
+        workingHours);
+  }
+
+  /**
+   * Returns the tasks of the parallel lists of ids, durations in minutes and task lists.
+   * The durations are checked against the same range as in the JSON requests.
+   *
+   * @param tasksListIds task lists of the tasks, or null if they are all in the most recent list
+   * @throws InvalidRequestException if a duration is not valid
+   */
+  static List<SelectedTask> getSelectedTasks(String[] tasksIds, String[] tasksDurations, String[] tasksListIds)
+      throws InvalidRequestException {
+    List<SelectedTask> tasks = new ArrayList<>();
+    for (int i = 0; i < tasksIds.length; i++) {
+      String tasksListId = tasksListIds == null ? null : tasksListIds[i];
+      long duration = ScheduleRequestParser.parseDuration(TASK_DURATION_LIST_KEY, tasksDurations[i]);
+      tasks.add(new SelectedTask(tasksIds[i], tasksListId, duration));
+    }
+    return tasks;
+  }
+
+  /**
+   * Returns the working hours contained in the request and checks if they are correct.
+   * If not, it returns null and sets the response as bad request.
+   */
+  private static WorkingHours getWorkingHours(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    WorkingHours workingHours = null;
+
+    try {
+      int startHour = Integer.parseInt(request.getParameter("start-hour"));
+      int startMin = Integer.parseInt(request.getParameter("start-min"));
+      int endHour = Integer.parseInt(request.getParameter("end-hour"));
+      int endMin = Integer.parseInt(request.getParameter("end-min"));
+
+      if (endHour < startHour || (startHour == endHour && endMin <= startMin)) {
+        badRequestResponse(response, "Select valid working hours (end time must be greater than start time)");
+      } else {
+        workingHours = new WorkingHours(startHour, startMin, endHour, endMin);
+      }
+    } catch(NumberFormatException exception) {
+      badRequestResponse(response, "Working hours format is incorrect");
+    }
+
+    return workingHours;
+  }
+
+  static void sendJsonResponse(HttpServletResponse response, String responseMessage) throws IOException {
+    sendJsonResponse(new ScheduleMessage(responseMessage), response);
+  }
+
+  static void sendJsonResponse(Object messageObject, HttpServletResponse response) throws IOException {
+    response.setContentType(MediaType.APPLICATION_JSON);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    try {
+      String jsonMessage = JsonConverter.toJson(messageObject);
+      response.getWriter().println(jsonMessage);
+    } catch (JsonProcessingException exception) {
+      throw new IOException(exception);
+    }
+  }
+
+  /**
+   * Creates response for a bad request by setting the status code and a message.
+   */
+  static void badRequestResponse(HttpServletResponse response, String message) throws IOException {
+    response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+    sendJsonResponse(response, message);
+  }
+}
@@ -0,0 +1,60 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.api.authorization.AuthorizationRequester;
+import com.google.sps.converter.JsonConverter;
+import com.google.sps.jobs.DatastoreScheduleJobQueue;
+import com.google.sps.jobs.ScheduleJob;
+import com.google.sps.jobs.ScheduleJobQueue;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reports the progress of a scheduling job of the user, and its result once it is done, as JSON.
+ */
+@WebServlet(ScheduleStatusServlet.PATH)
+public class ScheduleStatusServlet extends HttpServlet {
+  public static final String PATH = "/schedule/status";
+  private final ScheduleJobQueue jobQueue = DatastoreScheduleJobQueue.getInstance();
+
+  /**
+   * Returns the path where the status of the job is read.
+   */
+  public static String getStatusPath(String jobId) {
+    return PATH + "?" + ScheduleJobQueue.JOB_ID_KEY + "=" + jobId;
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String jobId = request.getParameter(ScheduleJobQueue.JOB_ID_KEY);
+    ScheduleJob job = jobId == null ? null : jobQueue.get(AuthorizationRequester.getUserId(), jobId);
+    if (job == null) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+    // The status changes until the job is done
+    response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+    response.setContentType(MediaType.APPLICATION_JSON);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.getWriter().println(JsonConverter.toJson(job));
+  }
+}
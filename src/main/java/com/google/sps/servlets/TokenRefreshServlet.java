@@ -0,0 +1,61 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.sps.api.authorization.AuthorizationRequester;
+import com.google.sps.api.authorization.TokenRefresher;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Refreshes the access token of a user and stores it, for the tasks enqueued by {@link TokenRefresher}.
+ * It is requested by the Task Queue, and only administrators can call it otherwise.
+ */
+@WebServlet(TokenRefresher.REFRESH_PATH)
+public class TokenRefreshServlet extends HttpServlet {
+  private static final Logger logger = Logger.getLogger(TokenRefreshServlet.class.getName());
+  private final TokenRefresher tokenRefresher = TokenRefresher.getInstance();
+
+  /**
+   * Refreshes the stored token of the user if it still expires soon, since the task can run late
+   * or after another refresh. A failed refresh answers an error, so that the queue tries it again.
+   */
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String userId = request.getParameter(TokenRefresher.USER_ID_KEY);
+    if (userId == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+      return;
+    }
+    // The user may have revoked the authorization since the task was enqueued
+    Credential credential = AuthorizationRequester.getFlow().loadCredential(userId);
+    if (credential != null) {
+      try {
+        tokenRefresher.refreshNowIfExpiringSoon(credential);
+      } catch (IOException exception) {
+        logger.log(Level.WARNING, "Could not refresh the access token", exception);
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        return;
+      }
+    }
+    response.setStatus(HttpServletResponse.SC_OK);
+  }
+}
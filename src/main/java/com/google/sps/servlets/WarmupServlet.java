@@ -0,0 +1,196 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import com.google.api.services.tasks.model.Task;
+import com.google.api.services.tasks.model.TaskList;
+import com.google.appengine.api.utils.SystemProperty;
+import com.google.sps.api.authorization.AuthorizationRequester;
+import com.google.sps.api.authorization.AuthorizedClients;
+import com.google.sps.api.authorization.AuthorizedClientsCache;
+import com.google.sps.api.concurrent.ApiExecutors;
+import com.google.sps.api.concurrent.IORunnable;
+import com.google.sps.converter.InvalidRequestException;
+import com.google.sps.converter.JsonConverter;
+import com.google.sps.converter.ScheduleRequestParser;
+import com.google.sps.data.Bootstrap;
+import com.google.sps.data.BusyInterval;
+import com.google.sps.data.ExtendedTask;
+import com.google.sps.data.ScheduleMessage;
+import com.google.sps.data.ScheduleProgress;
+import com.google.sps.data.TaskSummary;
+import com.google.sps.data.WorkingHours;
+import com.google.sps.jobs.ScheduleJob;
+import com.google.sps.scheduler.ScheduleInputsCache;
+import com.google.sps.scheduler.Scheduler;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads and initializes the libraries and the shared state used by the requests, so that the first
+ * user request of an instance doesn't pay for them. In production App Engine calls it before sending traffic
+ * to a new instance; the dev server doesn't send warmup requests, so elsewhere it runs when the servlet
+ * is loaded at startup.
+ */
+@WebServlet(value = WarmupServlet.PATH, loadOnStartup = 2)
+public class WarmupServlet extends HttpServlet {
+  public static final String PATH = "/_ah/warmup";
+  private static final String SAMPLE_TIME_ZONE = "America/Los_Angeles";
+  private static final String SAMPLE_REQUEST = "{\"tasks\": [{\"id\": \"warmup\", \"taskListId\": \"warmup\","
+      + " \"durationMinutes\": 30}], \"startDate\": \"2020-08-20\", \"endDate\": \"2020-08-21\","
+      + " \"workingHours\": {\"startHour\": 9, \"startMin\": 0, \"endHour\": 18, \"endMin\": 0}}";
+  private static final Logger logger = Logger.getLogger(WarmupServlet.class.getName());
+  private static final AtomicBoolean warmedUp = new AtomicBoolean();
+
+  @Override
+  public void init() {
+    // In production the warmup request does it, with the API environment available
+    if (SystemProperty.environment.value() != SystemProperty.Environment.Value.Production) {
+      warmUp();
+    }
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    warmUp();
+    response.setContentType(MediaType.TEXT_PLAIN);
+    response.getWriter().println("OK");
+  }
+
+  /**
+   * Runs the warmup once per instance. Each step fails on its own: a step that fails is only logged,
+   * and what it initializes is loaded by the first request needing it.
+   */
+  static void warmUp() {
+    if (!warmedUp.compareAndSet(false, true)) {
+      return;
+    }
+    long start = System.nanoTime();
+    List<String> failedSteps = runSteps();
+    logger.info("Warmed up in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms"
+        + (failedSteps.isEmpty() ? "" : ", failed steps: " + failedSteps));
+  }
+
+  /**
+   * Runs every warmup step and returns the names of the ones that failed.
+   */
+  static List<String> runSteps() {
+    Map<String, IORunnable> steps = new LinkedHashMap<>();
+    steps.put("API clients", WarmupServlet::warmUpApiClients);
+    steps.put("authorization flow", AuthorizationRequester::getFlow);
+    steps.put("executors and caches", WarmupServlet::warmUpSharedState);
+    steps.put("time zones", WarmupServlet::warmUpTimeZones);
+    steps.put("scheduler", WarmupServlet::warmUpScheduler);
+    steps.put("JSON", WarmupServlet::warmUpJson);
+    List<String> failedSteps = new ArrayList<>();
+    steps.forEach((name, step) -> {
+      try {
+        step.run();
+      } catch (IOException | RuntimeException exception) {
+        logger.log(Level.WARNING, "Could not warm up the " + name, exception);
+        failedSteps.add(name);
+      }
+    });
+    return failedSteps;
+  }
+
+  /**
+   * Loads the HTTP transport, the data store factory and the JSON factory of the Google API clients,
+   * builds the clients and reads the models they exchange, whose field metadata is loaded by reflection
+   * on first use.
+   */
+  private static void warmUpApiClients() throws IOException {
+    AuthorizationRequester.getDataStoreFactory();
+    AuthorizedClients.build(null);
+    JsonFactory jsonFactory = AuthorizationRequester.JSON_FACTORY;
+    DateTime dateTime = new DateTime(System.currentTimeMillis());
+    Task task = new Task().setId("warmup").setTitle("warmup").setDue(dateTime.toStringRfc3339());
+    jsonFactory.fromString(jsonFactory.toString(task), Task.class);
+    TaskList taskList = new TaskList().setId("warmup").setUpdated(dateTime.toStringRfc3339());
+    jsonFactory.fromString(jsonFactory.toString(taskList), TaskList.class);
+    Event event = new Event().setId("warmup")
+        .setStart(new EventDateTime().setDateTime(dateTime))
+        .setEnd(new EventDateTime().setDateTime(dateTime));
+    jsonFactory.fromString(jsonFactory.toString(event), Event.class);
+  }
+
+  private static void warmUpSharedState() {
+    ApiExecutors.getBulkheads();
+    AuthorizedClientsCache.getInstance();
+    ScheduleInputsCache.getInstance();
+  }
+
+  /**
+   * Loads the zone rules database, read the first time a time zone other than UTC is used.
+   */
+  private static void warmUpTimeZones() {
+    ZoneId.getAvailableZoneIds();
+    ZoneId.of(SAMPLE_TIME_ZONE).getRules().getOffset(LocalDate.now().atStartOfDay().toInstant(ZoneOffset.UTC));
+  }
+
+  /**
+   * Schedules a task around a busy interval, on a throwaway scheduler.
+   */
+  private static void warmUpScheduler() {
+    LocalDate today = LocalDate.now(ZoneId.of(SAMPLE_TIME_ZONE));
+    long dayStart = today.atStartOfDay(ZoneId.of(SAMPLE_TIME_ZONE)).toInstant().toEpochMilli();
+    List<BusyInterval> busyIntervals = Collections.singletonList(
+        new BusyInterval(dayStart + TimeUnit.HOURS.toMillis(10), dayStart + TimeUnit.HOURS.toMillis(11)));
+    List<ExtendedTask> tasks = Collections.singletonList(
+        new ExtendedTask(new Task().setId("warmup"), Scheduler.DEFAULT_DURATION_IN_MILLISECONDS));
+    WorkingHours workingHours = new WorkingHours(Scheduler.DEFAULT_START_HOUR, Scheduler.DEFAULT_START_MINUTE,
+        Scheduler.DEFAULT_END_HOUR, Scheduler.DEFAULT_END_MINUTE);
+    new Scheduler(busyIntervals, tasks, SAMPLE_TIME_ZONE, workingHours).scheduleInRange(today, today.plusDays(1));
+  }
+
+  /**
+   * Builds the serializers of the responses and parses a sample scheduling request.
+   */
+  private static void warmUpJson() throws IOException {
+    JsonConverter.warmUp(TaskSummary.class, Bootstrap.class, ScheduleMessage.class, ScheduleProgress.class,
+        ScheduleJob.class);
+    Task task = new Task().setId("warmup").setTitle("warmup");
+    List<TaskSummary> tasks = TaskSummary.ofTasks(Collections.singletonList(task));
+    JsonConverter.toJson(new Bootstrap("warmup@example.com", tasks));
+    JsonConverter.toJson(ScheduleProgress.done(new ScheduleMessage("warmup")));
+    try {
+      ScheduleRequestParser.parse(new ByteArrayInputStream(SAMPLE_REQUEST.getBytes(StandardCharsets.UTF_8)));
+    } catch (InvalidRequestException exception) {
+      throw new IOException(exception);
+    }
+  }
+}
@@ -18,6 +18,8 @@ let taskTemplate;
 let selectOptionsTemplate;
 let mdcSnackbar;
 let taskLoadingProgressBar;
+// Loads the tasks of all the task lists instead of only the most recently updated one
+const LOAD_ALL_TASK_LISTS = true;
 
 $(document).ready(init);
 
@@ -28,8 +30,33 @@ function init() {
   compileTemplates();
   fillSelects();
   initSnackbar();
-  loadTasks();
-  loadCalendar();
+  const bootstrap = readBootstrap();
+  if (bootstrap.tasks) {
+    renderTasks(bootstrap.tasks);
+  } else {
+    loadTasks();
+  }
+  if (bootstrap.email) {
+    setCalendar(bootstrap);
+  } else {
+    loadCalendar();
+  }
+}
+
+/**
+ * Reads the data inlined in the page by the server, so that the first
+ * render needs no request. Missing data is loaded with the usual requests.
+ */
+function readBootstrap() {
+  const bootstrapElement = document.getElementById("bootstrap");
+  if (!bootstrapElement) {
+    return {};
+  }
+  try {
+    return JSON.parse(bootstrapElement.textContent);
+  } catch (error) {
+    return {};
+  }
 }
 
 /**
@@ -103,7 +130,7 @@ function hideInfo() {
 
 function loadTasks() {
   taskLoadingProgressBar.open();
-  fetch("/load_tasks")
+  fetch(`/load_tasks?allLists=${LOAD_ALL_TASK_LISTS}`)
       .then(checkResponse)
       .then(getJson)
       .then(renderTasks)
@@ -225,7 +252,8 @@ function extractWorkingHours(){
 }
 
 /**
- * Appends to the form data the selected values for the duration of each task.
+ * Appends to the form data the selected values for the duration of each task,
+ * and the task list each task belongs to.
  */
 function appendDurations(formData) {
   $("input:checkbox[name='taskId']:checked").each(
@@ -233,6 +261,10 @@ function appendDurations(formData) {
         const durationSelect = $(this).closest(".task").find(".task-duration");
         const mdcDurationSelect = $(durationSelect).data("mdcSelect");
         formData.append("taskDuration", mdcDurationSelect.value);
+        const taskListId = $(this).attr("data-task-list-id");
+        if (taskListId) {
+          formData.append("taskListId", taskListId);
+        }
       }
   );
 }
@@ -0,0 +1,48 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.authorization;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
+import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
+import com.google.sps.api.concurrent.ConcurrentStress;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class AuthorizationRequesterTest {
+  private static final int THREADS = 16;
+
+  @Test
+  public void getClientCredential_concurrentCallsLoadOneInstance() throws Exception {
+    List<GoogleClientSecrets> clientSecrets = ConcurrentStress.run(THREADS, AuthorizationRequester::getClientCredential);
+
+    for (GoogleClientSecrets loadedClientSecrets : clientSecrets) {
+      Assert.assertSame(clientSecrets.get(0), loadedClientSecrets);
+    }
+    Assert.assertEquals("test-client-id.apps.googleusercontent.com", clientSecrets.get(0).getDetails().getClientId());
+  }
+
+  @Test
+  public void getFlow_concurrentCallsBuildOneFlow() throws Exception {
+    List<GoogleAuthorizationCodeFlow> flows = ConcurrentStress.run(THREADS, AuthorizationRequester::getFlow);
+
+    for (GoogleAuthorizationCodeFlow flow : flows) {
+      Assert.assertSame(flows.get(0), flow);
+    }
+  }
+}
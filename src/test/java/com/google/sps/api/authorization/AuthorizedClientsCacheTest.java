@@ -0,0 +1,127 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.authorization;
+
+import com.google.api.client.auth.oauth2.BearerToken;
+import com.google.api.client.auth.oauth2.ClientParametersAuthentication;
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public class AuthorizedClientsCacheTest {
+  private static final String USER_ID = "user";
+  private static final String OTHER_USER_ID = "other";
+  private static final String UNAUTHORIZED_USER_ID = "unauthorized";
+
+  private Map<String, Integer> loadCounts;
+  private AuthorizedClientsCache cache;
+
+  @Before
+  public void setUp() {
+    loadCounts = new HashMap<>();
+    cache = new AuthorizedClientsCache(userId -> {
+      loadCounts.merge(userId, 1, Integer::sum);
+      if (UNAUTHORIZED_USER_ID.equals(userId)) {
+        return null;
+      }
+      return new Credential(BearerToken.authorizationHeaderAccessMethod());
+    }, credential -> new AuthorizedClients(credential, null, null), new TokenRefresher(Mockito.mock(Queue.class)));
+  }
+
+  @Test
+  public void get_loadsCredentialOnce() throws IOException {
+    AuthorizedClients firstClients = cache.get(USER_ID);
+    AuthorizedClients secondClients = cache.get(USER_ID);
+
+    Assert.assertSame(firstClients, secondClients);
+    Assert.assertEquals(Integer.valueOf(1), loadCounts.get(USER_ID));
+  }
+
+  @Test
+  public void get_missingCredentialIsNotCached() throws IOException {
+    cache.get(UNAUTHORIZED_USER_ID);
+    AuthorizedClients clients = cache.get(UNAUTHORIZED_USER_ID);
+
+    Assert.assertNull(clients.getCredential());
+    Assert.assertEquals(Integer.valueOf(2), loadCounts.get(UNAUTHORIZED_USER_ID));
+  }
+
+  @Test
+  public void invalidate_userId() throws IOException {
+    AuthorizedClients firstClients = cache.get(USER_ID);
+
+    cache.invalidate(USER_ID);
+
+    Assert.assertNotSame(firstClients, cache.get(USER_ID));
+    Assert.assertEquals(Integer.valueOf(2), loadCounts.get(USER_ID));
+  }
+
+  @Test
+  public void invalidate_revokedCredential() throws IOException {
+    AuthorizedClients revokedClients = cache.get(USER_ID);
+    AuthorizedClients otherClients = cache.get(OTHER_USER_ID);
+
+    cache.invalidate(revokedClients.getCredential());
+
+    Assert.assertNotSame(revokedClients, cache.get(USER_ID));
+    Assert.assertSame(otherClients, cache.get(OTHER_USER_ID));
+  }
+
+  private static Credential createCredential(String accessToken, long expiresInSeconds) {
+    return new Credential.Builder(BearerToken.authorizationHeaderAccessMethod())
+        .setTransport(new MockHttpTransport())
+        .setJsonFactory(JacksonFactory.getDefaultInstance())
+        .setTokenServerEncodedUrl("https://oauth2.example.com/token")
+        .setClientAuthentication(new ClientParametersAuthentication("client", "secret"))
+        .build()
+        .setAccessToken(accessToken)
+        .setRefreshToken("refresh")
+        .setExpiresInSeconds(expiresInSeconds);
+  }
+
+  @Test
+  public void get_expiringTokenTakesStoredToken() throws IOException {
+    AtomicReference<Credential> storedCredential = new AtomicReference<>(createCredential("token", 60));
+    Queue queue = Mockito.mock(Queue.class);
+    AuthorizedClientsCache refreshingCache = new AuthorizedClientsCache(userId -> storedCredential.get(),
+        credential -> new AuthorizedClients(credential, null, null), new TokenRefresher(queue));
+    Credential cachedCredential = refreshingCache.get(USER_ID).getCredential();
+    Mockito.verify(queue).add(ArgumentMatchers.any(TaskOptions.class));
+
+    // The push task refreshed and stored the token
+    storedCredential.set(createCredential("refreshed", TimeUnit.HOURS.toSeconds(1)));
+    AuthorizedClients clients = refreshingCache.get(USER_ID);
+
+    Assert.assertSame(cachedCredential, clients.getCredential());
+    Assert.assertEquals("refreshed", cachedCredential.getAccessToken());
+    Assert.assertFalse(TokenRefresher.isExpiringSoon(cachedCredential));
+    Mockito.verify(queue).add(ArgumentMatchers.any(TaskOptions.class));
+  }
+}
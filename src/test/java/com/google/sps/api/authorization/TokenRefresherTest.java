@@ -0,0 +1,171 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.authorization;
+
+import com.google.api.client.auth.oauth2.BearerToken;
+import com.google.api.client.auth.oauth2.ClientParametersAuthentication;
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.auth.oauth2.TokenResponse;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.TaskAlreadyExistsException;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.appengine.api.taskqueue.TransientFailureException;
+import com.google.sps.api.concurrent.ConcurrentStress;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public class TokenRefresherTest {
+  private static final String USER_ID = "user";
+  private static final long EXPIRING_SOON_SECONDS = 60;
+  private static final String TOKEN_SERVER_URL = "https://oauth2.example.com/token";
+  private static final long VALID_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+  private Queue queue;
+  private TokenRefresher tokenRefresher;
+  private AtomicInteger refreshCount;
+
+  @Before
+  public void setUp() {
+    queue = Mockito.mock(Queue.class);
+    tokenRefresher = new TokenRefresher(queue);
+    refreshCount = new AtomicInteger();
+  }
+
+  /**
+   * Returns a credential whose refresh returns a new token valid for one hour.
+   */
+  private Credential createCredential(long expiresInSeconds) {
+    Credential.Builder builder = new Credential.Builder(BearerToken.authorizationHeaderAccessMethod())
+        .setTransport(new MockHttpTransport())
+        .setJsonFactory(JacksonFactory.getDefaultInstance())
+        .setTokenServerEncodedUrl(TOKEN_SERVER_URL)
+        .setClientAuthentication(new ClientParametersAuthentication("client", "secret"));
+    Credential credential = new Credential(builder) {
+      @Override
+      protected TokenResponse executeRefreshToken() {
+        refreshCount.incrementAndGet();
+        return new TokenResponse().setAccessToken("refreshed").setExpiresInSeconds(VALID_SECONDS);
+      }
+    };
+    return credential.setAccessToken("token").setRefreshToken("refresh").setExpiresInSeconds(expiresInSeconds);
+  }
+
+  @Test
+  public void refreshIfExpiringSoon_validTokenIsNotRefreshed() {
+    Credential credential = createCredential(VALID_SECONDS);
+
+    tokenRefresher.refreshIfExpiringSoon(USER_ID, credential);
+
+    Mockito.verifyNoInteractions(queue);
+    Assert.assertEquals(0, refreshCount.get());
+  }
+
+  @Test
+  public void refreshIfExpiringSoon_enqueuesNamedTaskWithoutRefreshing() {
+    Credential credential = createCredential(EXPIRING_SOON_SECONDS);
+    ArgumentCaptor<TaskOptions> taskOptions = ArgumentCaptor.forClass(TaskOptions.class);
+
+    tokenRefresher.refreshIfExpiringSoon(USER_ID, credential);
+
+    Mockito.verify(queue).add(taskOptions.capture());
+    Assert.assertEquals(TokenRefresher.REFRESH_PATH, taskOptions.getValue().getUrl());
+    Assert.assertEquals(TokenRefresher.getTaskName(USER_ID, credential.getExpirationTimeMilliseconds()),
+        taskOptions.getValue().getTaskName());
+    Assert.assertEquals("token", credential.getAccessToken());
+    Assert.assertEquals(0, refreshCount.get());
+  }
+
+  @Test
+  public void refreshIfExpiringSoon_enqueuedOncePerToken() throws Exception {
+    Credential credential = createCredential(EXPIRING_SOON_SECONDS);
+
+    ConcurrentStress.run(16, () -> {
+      tokenRefresher.refreshIfExpiringSoon(USER_ID, credential);
+      return null;
+    });
+    credential.setExpiresInSeconds(EXPIRING_SOON_SECONDS / 2);
+    tokenRefresher.refreshIfExpiringSoon(USER_ID, credential);
+
+    // A new token is enqueued again once it expires soon
+    ArgumentCaptor<TaskOptions> taskOptions = ArgumentCaptor.forClass(TaskOptions.class);
+    Mockito.verify(queue, Mockito.times(2)).add(taskOptions.capture());
+    Assert.assertNotEquals(taskOptions.getAllValues().get(0).getTaskName(),
+        taskOptions.getAllValues().get(1).getTaskName());
+  }
+
+  @Test
+  public void refreshIfExpiringSoon_enqueuedByOtherInstance() {
+    Credential credential = createCredential(EXPIRING_SOON_SECONDS);
+    Mockito.when(queue.add(ArgumentMatchers.any(TaskOptions.class))).thenThrow(new TaskAlreadyExistsException(""));
+
+    tokenRefresher.refreshIfExpiringSoon(USER_ID, credential);
+    tokenRefresher.refreshIfExpiringSoon(USER_ID, credential);
+
+    Mockito.verify(queue).add(ArgumentMatchers.any(TaskOptions.class));
+  }
+
+  @Test
+  public void refreshIfExpiringSoon_failedEnqueueIsTriedAgain() {
+    Credential credential = createCredential(EXPIRING_SOON_SECONDS);
+    Mockito.when(queue.add(ArgumentMatchers.any(TaskOptions.class)))
+        .thenThrow(new TransientFailureException(""))
+        .thenReturn(null);
+
+    tokenRefresher.refreshIfExpiringSoon(USER_ID, credential);
+    tokenRefresher.refreshIfExpiringSoon(USER_ID, credential);
+    tokenRefresher.refreshIfExpiringSoon(USER_ID, credential);
+
+    Mockito.verify(queue, Mockito.times(2)).add(ArgumentMatchers.any(TaskOptions.class));
+  }
+
+  @Test
+  public void refreshNowIfExpiringSoon_refreshesExpiringToken() throws IOException {
+    Credential credential = createCredential(EXPIRING_SOON_SECONDS);
+
+    Assert.assertTrue(tokenRefresher.refreshNowIfExpiringSoon(credential));
+
+    Assert.assertEquals("refreshed", credential.getAccessToken());
+    Assert.assertEquals(1, refreshCount.get());
+  }
+
+  @Test
+  public void refreshNowIfExpiringSoon_alreadyRefreshedToken() throws IOException {
+    Credential credential = createCredential(VALID_SECONDS);
+
+    Assert.assertFalse(tokenRefresher.refreshNowIfExpiringSoon(credential));
+
+    Assert.assertEquals(0, refreshCount.get());
+  }
+
+  @Test
+  public void getTaskName_onlyAllowedCharacters() {
+    String taskName = TokenRefresher.getTaskName("user@example.com/1", 1597881600000L);
+
+    Assert.assertTrue(taskName, taskName.matches("[a-zA-Z0-9_-]{1,500}"));
+    Assert.assertNotEquals(taskName, TokenRefresher.getTaskName("user_example_com_1", 1597881600000L));
+  }
+}
@@ -0,0 +1,110 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.calendar;
+
+import com.google.api.client.util.DateTime;
+import com.google.sps.data.BusyInterval;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BusyIntervalParserTest {
+  private static final String START = "2020-08-20T09:00:00+02:00";
+  private static final String END = "2020-08-20T10:00:00+02:00";
+  private static final String TIMES = "\"start\":{\"dateTime\":\"" + START + "\"},\"end\":{\"dateTime\":\"" + END + "\"}";
+  private static final BusyInterval INTERVAL = new BusyInterval(
+      DateTime.parseRfc3339(START).getValue(), DateTime.parseRfc3339(END).getValue());
+
+  private static BusyIntervalParser.Page parse(String json) throws IOException {
+    return BusyIntervalParser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static List<BusyInterval> parseItems(String... items) throws IOException {
+    return parse("{\"kind\":\"calendar#events\",\"items\":[" + String.join(",", items) + "]}").getBusyIntervals();
+  }
+
+  @Test
+  public void parse_ownEvent() throws IOException {
+    List<BusyInterval> actualIntervals = parseItems("{" + TIMES + "}");
+
+    Assert.assertEquals(Collections.singletonList(INTERVAL), actualIntervals);
+  }
+
+  @Test
+  public void parse_skipsUnusedProperties() throws IOException {
+    List<BusyInterval> actualIntervals = parseItems("{\"description\":\"Long text\","
+        + "\"conferenceData\":{\"entryPoints\":[{\"uri\":\"https://meet\"}]},"
+        + "\"attendees\":[{\"email\":\"guest\",\"responseStatus\":\"declined\"},"
+        + "{\"email\":\"me\",\"self\":true,\"responseStatus\":\"accepted\"}]," + TIMES + "}");
+
+    Assert.assertEquals(Collections.singletonList(INTERVAL), actualIntervals);
+  }
+
+  @Test
+  public void parse_declinedEvent() throws IOException {
+    List<BusyInterval> actualIntervals = parseItems(
+        "{\"attendees\":[{\"self\":true,\"responseStatus\":\"declined\"}]," + TIMES + "}");
+
+    Assert.assertEquals(Collections.emptyList(), actualIntervals);
+  }
+
+  @Test
+  public void parse_notInvitedAttendees() throws IOException {
+    // The attendee list does not contain the user, so the event is not attended (as isAttending)
+    List<BusyInterval> actualIntervals = parseItems(
+        "{\"attendees\":[{\"email\":\"guest\",\"responseStatus\":\"accepted\"}]," + TIMES + "}");
+
+    Assert.assertEquals(Collections.emptyList(), actualIntervals);
+  }
+
+  @Test
+  public void parse_freeEvent() throws IOException {
+    List<BusyInterval> actualIntervals = parseItems(
+        "{\"transparency\":\"transparent\"," + TIMES + "}",
+        "{\"transparency\":\"opaque\"," + TIMES + "}");
+
+    Assert.assertEquals(Collections.singletonList(INTERVAL), actualIntervals);
+  }
+
+  @Test
+  public void parse_allDayEvent() throws IOException {
+    List<BusyInterval> actualIntervals = parseItems(
+        "{\"start\":{\"date\":\"2020-08-20\"},\"end\":{\"date\":\"2020-08-21\"}}");
+
+    Assert.assertEquals(Collections.emptyList(), actualIntervals);
+  }
+
+  @Test
+  public void parse_nextPageToken() throws IOException {
+    BusyIntervalParser.Page page = parse("{\"nextPageToken\":\"token\",\"items\":[]}");
+
+    Assert.assertEquals("token", page.getNextPageToken());
+    Assert.assertEquals(Collections.emptyList(), page.getBusyIntervals());
+  }
+
+  @Test
+  public void parse_lastPage() throws IOException {
+    BusyIntervalParser.Page page = parse("{\"items\":[{" + TIMES + "}]}");
+
+    Assert.assertNull(page.getNextPageToken());
+  }
+}
@@ -0,0 +1,305 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.calendar;
+
+import com.google.api.client.googleapis.notifications.StoredChannel;
+import com.google.api.client.googleapis.notifications.UnparsedNotification;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.util.DateTime;
+import com.google.sps.api.concurrent.ConcurrentStress;
+import com.google.sps.data.BusyInterval;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CalendarSyncCacheTest {
+  private static final String USER_ID = "user";
+  private static final String CHANNEL_TOKEN = "token";
+  private static final long NOW = Instant.parse("2020-08-20T00:00:00Z").toEpochMilli();
+  private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+  private static final BusyInterval MORNING = new BusyInterval(NOW + 9 * HOUR, NOW + 10 * HOUR);
+  private static final BusyInterval AFTERNOON = new BusyInterval(NOW + 15 * HOUR, NOW + 16 * HOUR);
+  private static final BusyInterval NEXT_DAY = new BusyInterval(NOW + 33 * HOUR, NOW + 34 * HOUR);
+
+  private FakeCalendar calendar;
+  private CalendarSyncCache cache;
+  private List<BusyInterval> changedIntervals;
+
+  /**
+   * Local stand-in of the Calendar API, keeping a change log to answer incremental syncs.
+   */
+  private static class FakeCalendar implements BusyIntervalSource {
+    private final Map<String, BusyInterval> events = new LinkedHashMap<>();
+    private final List<String> changeLog = new ArrayList<>();
+    private boolean syncTokensExpired = false;
+    private int fullSyncs = 0;
+    private int incrementalSyncs = 0;
+
+    synchronized void put(String id, BusyInterval interval) {
+      events.put(id, interval);
+      changeLog.add(id);
+    }
+
+    synchronized void cancel(String id) {
+      events.remove(id);
+      changeLog.add(id);
+    }
+
+    @Override
+    public synchronized BusyIntervalParser.Page listChanges(String syncToken, DateTime timeMin, DateTime timeMax)
+        throws IOException {
+      Map<String, BusyInterval> changes = new LinkedHashMap<>();
+      if (syncToken == null) {
+        fullSyncs++;
+        changes.putAll(events);
+      } else {
+        if (syncTokensExpired) {
+          throw new HttpResponseException.Builder(410, "Gone", new HttpHeaders()).build();
+        }
+        incrementalSyncs++;
+        for (String id : changeLog.subList(Integer.parseInt(syncToken), changeLog.size())) {
+          changes.put(id, events.get(id));
+        }
+      }
+      List<BusyInterval> busyIntervals = new ArrayList<>(changes.values());
+      busyIntervals.removeIf(interval -> interval == null);
+      return new BusyIntervalParser.Page(busyIntervals, changes, null, String.valueOf(changeLog.size()));
+    }
+  }
+
+  @Before
+  public void setUp() {
+    calendar = new FakeCalendar();
+    calendar.put("morning", MORNING);
+    cache = new CalendarSyncCache(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC), TimeUnit.MINUTES.toMillis(10));
+    changedIntervals = Collections.synchronizedList(new ArrayList<>());
+    cache.addListener((userId, intervals) -> changedIntervals.addAll(intervals));
+  }
+
+  private List<BusyInterval> getTomorrowIntervals() throws IOException {
+    return cache.getBusyIntervals(USER_ID, NOW, NOW + 24 * HOUR, calendar);
+  }
+
+  /**
+   * Simulates a push notification of the user's calendar.
+   */
+  private void notifyChange(String channelToken) throws IOException {
+    CalendarNotificationCallback callback = new CalendarNotificationCallback(USER_ID) {
+      @Override
+      CalendarSyncCache getCache() {
+        return cache;
+      }
+
+      @Override
+      BusyIntervalSource newBusyIntervalSource() {
+        return calendar;
+      }
+    };
+    StoredChannel storedChannel = new StoredChannel(callback, "channel").setClientToken(CHANNEL_TOKEN);
+    UnparsedNotification notification = new UnparsedNotification(2, "exists", "resource", "uri", "channel");
+    notification.setChannelToken(channelToken);
+    callback.onNotification(storedChannel, notification);
+  }
+
+  @Test
+  public void getBusyIntervals_fullSyncOnFirstRead() throws IOException {
+    Assert.assertFalse(cache.isSynced(USER_ID));
+
+    List<BusyInterval> actualIntervals = getTomorrowIntervals();
+
+    Assert.assertEquals(Collections.singletonList(MORNING), actualIntervals);
+    Assert.assertTrue(cache.isSynced(USER_ID));
+    Assert.assertEquals(1, calendar.fullSyncs);
+  }
+
+  @Test
+  public void getBusyIntervals_filtersTimerange() throws IOException {
+    calendar.put("nextDay", NEXT_DAY);
+
+    List<BusyInterval> actualIntervals = getTomorrowIntervals();
+
+    Assert.assertEquals(Collections.singletonList(MORNING), actualIntervals);
+  }
+
+  @Test
+  public void getBusyIntervals_outsideWindow() throws IOException {
+    long windowEnd = NOW + TimeUnit.DAYS.toMillis(CalendarSyncCache.WINDOW_FUTURE_DAYS);
+
+    List<BusyInterval> actualIntervals = cache.getBusyIntervals(USER_ID, NOW, windowEnd + HOUR, calendar);
+
+    Assert.assertNull(actualIntervals);
+  }
+
+  @Test
+  public void getBusyIntervals_freshCacheIsNotSynced() throws IOException {
+    getTomorrowIntervals();
+    calendar.put("afternoon", AFTERNOON);
+
+    List<BusyInterval> actualIntervals = getTomorrowIntervals();
+
+    Assert.assertEquals(Collections.singletonList(MORNING), actualIntervals);
+    Assert.assertEquals(0, calendar.incrementalSyncs);
+  }
+
+  @Test
+  public void getBusyIntervals_staleCacheIsSyncedIncrementally() throws IOException {
+    getTomorrowIntervals();
+    calendar.put("afternoon", AFTERNOON);
+    cache.markStale(USER_ID);
+
+    List<BusyInterval> actualIntervals = getTomorrowIntervals();
+
+    Assert.assertEquals(Arrays.asList(MORNING, AFTERNOON), sorted(actualIntervals));
+    Assert.assertEquals(1, calendar.fullSyncs);
+    Assert.assertEquals(1, calendar.incrementalSyncs);
+  }
+
+  @Test
+  public void notification_appliesChanges() throws IOException {
+    getTomorrowIntervals();
+    changedIntervals.clear();
+    BusyInterval movedMorning = new BusyInterval(MORNING.getStart() + HOUR, MORNING.getEnd() + HOUR);
+    calendar.put("morning", movedMorning);
+    calendar.put("afternoon", AFTERNOON);
+
+    notifyChange(CHANNEL_TOKEN);
+
+    Assert.assertEquals(Arrays.asList(movedMorning, AFTERNOON), sorted(getTomorrowIntervals()));
+    Assert.assertEquals(Arrays.asList(MORNING, movedMorning, AFTERNOON), changedIntervals);
+  }
+
+  @Test
+  public void notification_cancelledEvent() throws IOException {
+    getTomorrowIntervals();
+    changedIntervals.clear();
+    calendar.cancel("morning");
+
+    notifyChange(CHANNEL_TOKEN);
+
+    Assert.assertEquals(Collections.emptyList(), getTomorrowIntervals());
+    Assert.assertEquals(Collections.singletonList(MORNING), changedIntervals);
+  }
+
+  @Test
+  public void notification_wrongTokenIsIgnored() throws IOException {
+    getTomorrowIntervals();
+    calendar.put("afternoon", AFTERNOON);
+
+    notifyChange("forged");
+
+    Assert.assertEquals(Collections.singletonList(MORNING), getTomorrowIntervals());
+    Assert.assertEquals(0, calendar.incrementalSyncs);
+  }
+
+  @Test
+  public void notification_notSyncedUserIsIgnored() throws IOException {
+    notifyChange(CHANNEL_TOKEN);
+
+    Assert.assertFalse(cache.isSynced(USER_ID));
+    Assert.assertEquals(0, calendar.fullSyncs);
+  }
+
+  @Test
+  public void sync_expiredSyncTokenFallsBackToFullSync() throws IOException {
+    getTomorrowIntervals();
+    calendar.cancel("morning");
+    calendar.put("afternoon", AFTERNOON);
+    calendar.syncTokensExpired = true;
+
+    cache.sync(USER_ID, calendar);
+
+    Assert.assertEquals(Collections.singletonList(AFTERNOON), getTomorrowIntervals());
+    Assert.assertEquals(2, calendar.fullSyncs);
+  }
+
+  @Test(timeout = 10000)
+  public void sync_doesNotBlockReadsWhileFetching() throws Exception {
+    getTomorrowIntervals();
+    calendar.put("afternoon", AFTERNOON);
+    CountDownLatch fetching = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    BusyIntervalSource slowSource = (syncToken, timeMin, timeMax) -> {
+      fetching.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException exception) {
+        throw new IOException(exception);
+      }
+      return calendar.listChanges(syncToken, timeMin, timeMax);
+    };
+    Thread syncThread = new Thread(() -> {
+      try {
+        cache.sync(USER_ID, slowSource);
+      } catch (IOException exception) {
+        throw new IllegalStateException(exception);
+      }
+    });
+    syncThread.start();
+    fetching.await();
+
+    List<BusyInterval> intervalsDuringSync = getTomorrowIntervals();
+    release.countDown();
+    syncThread.join();
+
+    Assert.assertEquals(Collections.singletonList(MORNING), intervalsDuringSync);
+    Assert.assertEquals(Arrays.asList(MORNING, AFTERNOON), sorted(getTomorrowIntervals()));
+  }
+
+  @Test
+  public void concurrentReadsAndNotifications() throws Exception {
+    getTomorrowIntervals();
+    AtomicInteger nextThread = new AtomicInteger();
+
+    ConcurrentStress.run(16, () -> {
+      int thread = nextThread.getAndIncrement();
+      for (int i = 0; i < 50; i++) {
+        if (thread % 2 == 0) {
+          calendar.put("event" + thread + "-" + i, new BusyInterval(NOW + i * HOUR / 60, NOW + (i + 1) * HOUR / 60));
+          notifyChange(CHANNEL_TOKEN);
+        } else {
+          Assert.assertNotNull(getTomorrowIntervals());
+        }
+      }
+      return null;
+    });
+    notifyChange(CHANNEL_TOKEN);
+
+    Assert.assertEquals(8 * 50 + 1, getTomorrowIntervals().size());
+    Assert.assertEquals(1, calendar.fullSyncs);
+  }
+
+  private static List<BusyInterval> sorted(List<BusyInterval> intervals) {
+    List<BusyInterval> sortedIntervals = new ArrayList<>(intervals);
+    sortedIntervals.sort((first, second) -> Long.compare(first.getStart(), second.getStart()));
+    return sortedIntervals;
+  }
+}
@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.calendar;
+
+import com.google.api.client.util.store.MemoryDataStoreFactory;
+import com.google.api.services.calendar.model.Channel;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public class CalendarWatcherTest {
+  private static final String USER_ID = "user";
+  private static final String ADDRESS = "https://example.com/notifications/calendar";
+  private static final String RESOURCE_ID = "resource";
+
+  private CalendarWatcher calendarWatcher;
+  private CalendarClientAdapter calendarClientAdapter;
+
+  @Before
+  public void setUp() throws IOException {
+    calendarWatcher = new CalendarWatcher(new MemoryDataStoreFactory());
+    calendarClientAdapter = Mockito.mock(CalendarClientAdapter.class);
+    // The channels expire within the renewal margin, so each call renews them
+    Mockito.when(calendarClientAdapter.watchPrimaryCalendar(
+        ArgumentMatchers.anyString(), ArgumentMatchers.eq(ADDRESS), ArgumentMatchers.anyString()))
+        .thenAnswer(invocation -> new Channel()
+            .setId(invocation.getArgument(0))
+            .setResourceId(RESOURCE_ID)
+            .setExpiration(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1)));
+  }
+
+  @Test
+  public void ensureWatching_renewalStopsTheOldChannel() throws IOException {
+    calendarWatcher.ensureWatching(USER_ID, calendarClientAdapter, ADDRESS);
+    Mockito.verify(calendarClientAdapter, Mockito.never())
+        .stopChannel(ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+
+    calendarWatcher.ensureWatching(USER_ID, calendarClientAdapter, ADDRESS);
+
+    Mockito.verify(calendarClientAdapter).stopChannel(ArgumentMatchers.anyString(), ArgumentMatchers.eq(RESOURCE_ID));
+  }
+
+  @Test
+  public void ensureWatching_failedStopStillRenews() throws IOException {
+    Mockito.doThrow(new IOException("API error")).when(calendarClientAdapter)
+        .stopChannel(ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+
+    calendarWatcher.ensureWatching(USER_ID, calendarClientAdapter, ADDRESS);
+    calendarWatcher.ensureWatching(USER_ID, calendarClientAdapter, ADDRESS);
+
+    Mockito.verify(calendarClientAdapter, Mockito.times(2)).watchPrimaryCalendar(
+        ArgumentMatchers.anyString(), ArgumentMatchers.eq(ADDRESS), ArgumentMatchers.anyString());
+  }
+}
@@ -0,0 +1,99 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.api.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class AdaptiveConcurrencyLimitTest {
+
+  /**
+   * Admits as many requests as the limit allows, then releases them all with the latency.
+   */
+  private static void runAtLimit(AdaptiveConcurrencyLimit limit, long latencyInMilliseconds, int rounds) {
+    for (int round = 0; round < rounds; round++) {
+      int admitted = 0;
+      while (limit.tryAcquire()) {
+        admitted++;
+      }
+      for (int i = 0; i < admitted; i++) {
+        limit.release(latencyInMilliseconds);
+      }
+    }
+  }
+
+  @Test
+  public void tryAcquire_rejectsOverLimit() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 2, 1, 10);
+
+    Assert.assertTrue(limit.tryAcquire());
+    Assert.assertTrue(limit.tryAcquire());
+    Assert.assertFalse(limit.tryAcquire());
+    Assert.assertEquals(2, limit.getInFlightCount());
+    Assert.assertEquals(1, limit.getRejectedCount());
+
+    limit.releaseIgnored();
+    Assert.assertTrue(limit.tryAcquire());
+  }
+
+  @Test
+  public void release_stableLatencyGrowsLimitUpToMax() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 4, 1, 20);
+
+    runAtLimit(limit, 100, 50);
+
+    Assert.assertEquals(20, limit.getLimit());
+    Assert.assertEquals(0, limit.getInFlightCount());
+  }
+
+  @Test
+  public void release_risingLatencyShrinksLimit() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 20, 1, 20);
+    runAtLimit(limit, 100, 20);
+
+    runAtLimit(limit, 1000, 3);
+
+    Assert.assertTrue(limit.getLimit() < 10);
+  }
+
+  @Test
+  public void release_fewRequestsInFlightKeepLimit() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 10, 1, 20);
+
+    for (int i = 0; i < 100; i++) {
+      limit.tryAcquire();
+      limit.release(100);
+    }
+
+    Assert.assertEquals(10, limit.getLimit());
+  }
+
+  @Test
+  public void releaseDropped_shrinksLimitDownToMin() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 10, 5, 20);
+
+    limit.tryAcquire();
+    limit.releaseDropped();
+    Assert.assertEquals(9, limit.getLimit());
+
+    for (int i = 0; i < 20; i++) {
+      limit.tryAcquire();
+      limit.releaseDropped();
+    }
+    Assert.assertEquals(5, limit.getLimit());
+  }
+}
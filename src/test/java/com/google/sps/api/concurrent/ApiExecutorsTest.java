@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.concurrent;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ApiExecutorsTest {
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void supplyAsync_result() throws IOException {
+    CompletableFuture<String> future = ApiExecutors.supplyAsync(() -> "result", executorService);
+
+    Assert.assertEquals("result", ApiExecutors.await(future));
+  }
+
+  @Test
+  public void supplyAsync_ioExceptionIsRethrownByAwait() {
+    IOException expectedException = new IOException("API error");
+    CompletableFuture<String> future = ApiExecutors.supplyAsync(() -> {
+      throw expectedException;
+    }, executorService);
+
+    try {
+      ApiExecutors.await(future);
+      Assert.fail("Expected an IOException");
+    } catch (IOException actualException) {
+      Assert.assertSame(expectedException, actualException);
+    }
+  }
+
+  @Test
+  public void await_composedFutureUnwrapsIOException() {
+    IOException expectedException = new IOException("API error");
+    CompletableFuture<String> future = ApiExecutors.supplyAsync(() -> "first", executorService)
+        .thenCompose(ignored -> ApiExecutors.supplyAsync(() -> {
+          throw expectedException;
+        }, executorService));
+
+    try {
+      ApiExecutors.await(future);
+      Assert.fail("Expected an IOException");
+    } catch (IOException actualException) {
+      Assert.assertSame(expectedException, actualException);
+    }
+  }
+
+  @Test
+  public void allAsList_keepsOrder() throws IOException {
+    List<CompletableFuture<Integer>> futures = Arrays.asList(
+        ApiExecutors.supplyAsync(() -> 1, executorService),
+        ApiExecutors.supplyAsync(() -> 2, executorService),
+        ApiExecutors.supplyAsync(() -> 3, executorService));
+
+    Assert.assertEquals(ImmutableList.of(1, 2, 3), ApiExecutors.await(ApiExecutors.allAsList(futures)));
+  }
+}
@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.concurrent;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BulkheadTest {
+  private CountDownLatch release;
+  private CountDownLatch started;
+
+  @Before
+  public void setUp() {
+    release = new CountDownLatch(1);
+    started = new CountDownLatch(1);
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+  }
+
+  /**
+   * Submits a call that blocks until the end of the test.
+   */
+  private CompletableFuture<String> submitBlockingCall(Bulkhead bulkhead) {
+    return ApiExecutors.supplyAsync(() -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+      return "slow";
+    }, bulkhead.getExecutor());
+  }
+
+  @Test
+  public void fullBulkheadRejectsCalls() throws InterruptedException {
+    Bulkhead bulkhead = new Bulkhead("slow", 1, 1);
+    submitBlockingCall(bulkhead);
+    started.await();
+    submitBlockingCall(bulkhead);
+
+    CompletableFuture<String> rejectedFuture = ApiExecutors.supplyAsync(() -> "rejected", bulkhead.getExecutor());
+
+    try {
+      ApiExecutors.await(rejectedFuture);
+      Assert.fail("The call should have been rejected");
+    } catch (IOException exception) {
+      Assert.assertTrue(exception.getCause() instanceof BulkheadFullException);
+    }
+    Assert.assertEquals(1, bulkhead.getActiveCount());
+    Assert.assertEquals(1, bulkhead.getQueueDepth());
+    Assert.assertEquals(1, bulkhead.getRejectedCount());
+  }
+
+  @Test
+  public void fullBulkheadDoesNotBlockOtherBulkheads() throws IOException, InterruptedException {
+    Bulkhead slowBulkhead = new Bulkhead("slow", 1, 1);
+    Bulkhead fastBulkhead = new Bulkhead("fast", 1, 1);
+    submitBlockingCall(slowBulkhead);
+    started.await();
+    submitBlockingCall(slowBulkhead);
+
+    String result = ApiExecutors.await(ApiExecutors.supplyAsync(() -> "fast", fastBulkhead.getExecutor()));
+
+    Assert.assertEquals("fast", result);
+    Assert.assertEquals(0, fastBulkhead.getRejectedCount());
+  }
+}
@@ -0,0 +1,57 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same action on many threads at once, to exercise the races of the code under test.
+ */
+public class ConcurrentStress {
+  private static final long TIMEOUT_SECONDS = 30;
+
+  /**
+   * Starts the action on all the threads at the same time, and returns their results
+   * once they all completed. The first exception thrown by an action is rethrown.
+   */
+  public static <T> List<T> run(int threads, Callable<T> action) throws Exception {
+    ExecutorService executorService = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<T>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executorService.submit(() -> {
+          start.await();
+          return action.call();
+        }));
+      }
+      start.countDown();
+      List<T> results = new ArrayList<>();
+      for (Future<T> future : futures) {
+        results.add(future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+      }
+      return results;
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.concurrent;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class DeadlineTest {
+  private static final Clock CLOCK = Clock.fixed(Instant.parse("2020-08-20T10:00:00Z"), ZoneOffset.UTC);
+
+  @Test
+  public void getTimeout_shortenedToRemainingTime() throws DeadlineExceededException {
+    Deadline deadline = Deadline.after(3000, CLOCK);
+
+    Assert.assertEquals(2000, deadline.getTimeout(2000));
+    Assert.assertEquals(3000, deadline.getTimeout(20000));
+  }
+
+  @Test(expected = DeadlineExceededException.class)
+  public void getTimeout_expired() throws DeadlineExceededException {
+    Deadline.after(0, CLOCK).getTimeout(2000);
+  }
+
+  @Test
+  public void minus() {
+    Deadline deadline = Deadline.after(3000, CLOCK).minus(1000);
+
+    Assert.assertEquals(2000, deadline.getRemainingMillis());
+    Assert.assertTrue(deadline.hasTimeFor(2000));
+    Assert.assertFalse(deadline.hasTimeFor(2001));
+  }
+
+  @Test
+  public void none_neverExpires() throws DeadlineExceededException {
+    Deadline deadline = Deadline.none().minus(1000);
+
+    Assert.assertFalse(deadline.isExpired());
+    Assert.assertEquals(20000, deadline.getTimeout(20000));
+  }
+}
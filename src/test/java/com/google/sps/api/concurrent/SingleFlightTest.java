@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.concurrent;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SingleFlightTest {
+  private static final int THREADS = 16;
+
+  @Test
+  public void execute_concurrentCallersShareOneCall() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    CompletableFuture<String> call = new CompletableFuture<>();
+    AtomicInteger calls = new AtomicInteger();
+
+    CompletableFuture<String> first = singleFlight.execute("user/list", () -> {
+      calls.incrementAndGet();
+      return call;
+    });
+    CompletableFuture<String> second = singleFlight.execute("user/list", () -> {
+      calls.incrementAndGet();
+      return CompletableFuture.completedFuture("other");
+    });
+    call.complete("tasks");
+
+    Assert.assertEquals(1, calls.get());
+    Assert.assertEquals("tasks", first.join());
+    Assert.assertEquals("tasks", second.join());
+    Assert.assertEquals(0, singleFlight.getInFlightCount());
+  }
+
+  @Test
+  public void execute_differentKeysDontShare() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    CompletableFuture<String> call = new CompletableFuture<>();
+
+    singleFlight.execute("user/list", () -> call);
+    CompletableFuture<String> otherUser = singleFlight.execute("otherUser/list",
+        () -> CompletableFuture.completedFuture("other tasks"));
+
+    Assert.assertEquals("other tasks", otherUser.join());
+    Assert.assertEquals(1, singleFlight.getInFlightCount());
+  }
+
+  @Test
+  public void execute_completedCallNotReused() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    AtomicInteger calls = new AtomicInteger();
+
+    singleFlight.execute("user", () -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).join();
+    String result = singleFlight.execute("user",
+        () -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).join();
+
+    Assert.assertEquals("v2", result);
+  }
+
+  @Test
+  public void execute_failureSharedThenRetried() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    CompletableFuture<String> call = new CompletableFuture<>();
+
+    CompletableFuture<String> first = singleFlight.execute("user", () -> call);
+    CompletableFuture<String> second = singleFlight.execute("user", () -> call);
+    call.completeExceptionally(new IOException("API error"));
+
+    Assert.assertTrue(first.isCompletedExceptionally());
+    Assert.assertTrue(second.isCompletedExceptionally());
+    Assert.assertEquals("retried",
+        singleFlight.execute("user", () -> CompletableFuture.completedFuture("retried")).join());
+  }
+
+  @Test
+  public void execute_cancelledCallerDoesntAffectOthers() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    CompletableFuture<String> call = new CompletableFuture<>();
+
+    CompletableFuture<String> first = singleFlight.execute("user", () -> call);
+    CompletableFuture<String> second = singleFlight.execute("user", () -> call);
+    first.cancel(false);
+    second.complete("completed by the caller");
+    CompletableFuture<String> third = singleFlight.execute("user", () -> call);
+    call.complete("tasks");
+
+    Assert.assertFalse(call.isCancelled());
+    Assert.assertEquals("tasks", third.join());
+    Assert.assertEquals("completed by the caller", second.join());
+  }
+
+  @Test
+  public void execute_concurrentThreads() throws Exception {
+    SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+    CompletableFuture<Integer> call = new CompletableFuture<>();
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch allJoined = new CountDownLatch(THREADS);
+
+    CompletableFuture<List<Integer>> results = CompletableFuture.supplyAsync(() -> {
+      try {
+        return ConcurrentStress.run(THREADS, () -> {
+          CompletableFuture<Integer> flight = singleFlight.execute("user", () -> {
+            calls.incrementAndGet();
+            return call;
+          });
+          allJoined.countDown();
+          return flight.join();
+        });
+      } catch (Exception exception) {
+        throw new RuntimeException(exception);
+      }
+    });
+    allJoined.await();
+    call.complete(42);
+
+    Assert.assertEquals(1, calls.get());
+    Assert.assertFalse(results.join().stream().anyMatch(result -> result != 42));
+  }
+}
@@ -0,0 +1,178 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.api.hedging;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HedgedRequestExecutorTest {
+  private final static long FAST_LATENCY = 10;
+  private final static int MIN_SAMPLES = 5;
+
+  private ExecutorService executorService;
+  private LatencyTracker latencyTracker;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newCachedThreadPool();
+    latencyTracker = new LatencyTracker(HedgedRequestExecutor.DEFAULT_WINDOW_SIZE);
+    for (int i = 0; i < MIN_SAMPLES; i++) {
+      latencyTracker.record(FAST_LATENCY);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  private HedgedRequestExecutor createExecutor(HedgeBudget hedgeBudget, boolean enabled) {
+    return new HedgedRequestExecutor(executorService, latencyTracker, hedgeBudget,
+        HedgedRequestExecutor.DEFAULT_PERCENTILE, MIN_SAMPLES, enabled);
+  }
+
+  @Test
+  public void execute_disabled() throws IOException {
+    AtomicInteger calls = new AtomicInteger();
+    HedgedRequestExecutor hedgedRequestExecutor = createExecutor(new HedgeBudget(1, 1), false);
+
+    String result = hedgedRequestExecutor.execute(() -> "result" + calls.incrementAndGet());
+
+    Assert.assertEquals("result1", result);
+    Assert.assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void execute_slowFirstAttemptIsHedged() throws IOException {
+    CountDownLatch firstAttemptBlocked = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    HedgedRequestExecutor hedgedRequestExecutor = createExecutor(new HedgeBudget(1, 1), true);
+
+    String result = hedgedRequestExecutor.execute(() -> {
+      if (calls.incrementAndGet() == 1) {
+        firstAttemptBlocked.await(1, TimeUnit.MINUTES);
+        return "slow";
+      }
+      return "hedged";
+    });
+
+    Assert.assertEquals("hedged", result);
+    Assert.assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void execute_cancelledAttemptLatencyIsRecorded() throws Exception {
+    CountDownLatch firstAttemptEnded = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    HedgedRequestExecutor hedgedRequestExecutor = createExecutor(new HedgeBudget(1, 1), true);
+
+    hedgedRequestExecutor.execute(() -> {
+      if (calls.incrementAndGet() == 1) {
+        try {
+          Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        } finally {
+          firstAttemptEnded.countDown();
+        }
+      }
+      return "hedged";
+    });
+
+    // The slow attempt is interrupted by the cancellation, its latency is recorded after the hedge
+    Assert.assertTrue(firstAttemptEnded.await(1, TimeUnit.MINUTES));
+    long end = System.currentTimeMillis() + 5000;
+    while (latencyTracker.getSampleCount() < MIN_SAMPLES + 2 && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(MIN_SAMPLES + 2, latencyTracker.getSampleCount());
+  }
+
+  @Test
+  public void execute_exhaustedBudgetWaitsForFirstAttempt() throws IOException {
+    AtomicInteger calls = new AtomicInteger();
+    HedgedRequestExecutor hedgedRequestExecutor = createExecutor(new HedgeBudget(0, 1), true);
+
+    String result = hedgedRequestExecutor.execute(() -> {
+      calls.incrementAndGet();
+      Thread.sleep(FAST_LATENCY * 5);
+      return "slow";
+    });
+
+    Assert.assertEquals("slow", result);
+    Assert.assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void execute_notEnoughSamplesIsNotHedged() throws IOException {
+    AtomicInteger calls = new AtomicInteger();
+    latencyTracker = new LatencyTracker(HedgedRequestExecutor.DEFAULT_WINDOW_SIZE);
+    HedgedRequestExecutor hedgedRequestExecutor = createExecutor(new HedgeBudget(1, 1), true);
+
+    String result = hedgedRequestExecutor.execute(() -> {
+      calls.incrementAndGet();
+      Thread.sleep(FAST_LATENCY * 5);
+      return "slow";
+    });
+
+    Assert.assertEquals("slow", result);
+    Assert.assertEquals(1, calls.get());
+  }
+
+  @Test(expected = IOException.class)
+  public void execute_failureIsPropagated() throws IOException {
+    HedgedRequestExecutor hedgedRequestExecutor = createExecutor(new HedgeBudget(1, 1), true);
+
+    hedgedRequestExecutor.execute(() -> {
+      throw new IOException();
+    });
+  }
+
+  @Test
+  public void getPercentile_recentSamplesOnly() {
+    LatencyTracker tracker = new LatencyTracker(4);
+    tracker.record(1000);
+    for (long latency = 1; latency <= 4; latency++) {
+      tracker.record(latency);
+    }
+
+    Assert.assertEquals(4, tracker.getSampleCount());
+    Assert.assertEquals(4, tracker.getPercentile(0.95));
+    Assert.assertEquals(2, tracker.getPercentile(0.5));
+  }
+
+  @Test
+  public void tryAcquire_limitedByRatio() {
+    HedgeBudget hedgeBudget = new HedgeBudget(0.25, 10);
+    int hedges = 0;
+    for (int i = 0; i < 100; i++) {
+      hedgeBudget.onRequest();
+      if (hedgeBudget.tryAcquire()) {
+        hedges++;
+      }
+    }
+
+    Assert.assertEquals(25, hedges);
+  }
+}
@@ -0,0 +1,71 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.api.http;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.api.concurrent.DeadlineExceededException;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ApiRequestInitializerTest {
+  private static final int CONNECT_TIMEOUT = 5000;
+  private static final int READ_TIMEOUT = 20000;
+
+  private static HttpRequest buildRequest(HttpRequestInitializer initializer) throws IOException {
+    return new MockHttpTransport().createRequestFactory(initializer)
+        .buildGetRequest(new GenericUrl("https://www.googleapis.com/tasks/v1/users/@me/lists"));
+  }
+
+  @Test
+  public void initialize_setsTimeoutsWithoutDeadline() throws IOException {
+    HttpRequest request = buildRequest(
+        new ApiRequestInitializer(null, CONNECT_TIMEOUT, READ_TIMEOUT, Deadline::none));
+
+    Assert.assertEquals(CONNECT_TIMEOUT, request.getConnectTimeout());
+    Assert.assertEquals(READ_TIMEOUT, request.getReadTimeout());
+  }
+
+  @Test
+  public void initialize_boundsTimeoutsByDeadline() throws IOException {
+    Deadline deadline = Deadline.after(8000);
+
+    HttpRequest request = buildRequest(
+        new ApiRequestInitializer(null, CONNECT_TIMEOUT, READ_TIMEOUT, () -> deadline));
+
+    Assert.assertEquals(CONNECT_TIMEOUT, request.getConnectTimeout());
+    Assert.assertTrue(request.getReadTimeout() <= 8000);
+    Assert.assertTrue(request.getReadTimeout() > 7000);
+  }
+
+  @Test
+  public void initialize_appliesDelegateFirst() throws IOException {
+    HttpRequest request = buildRequest(new ApiRequestInitializer(
+        delegateRequest -> delegateRequest.setReadTimeout(1), CONNECT_TIMEOUT, READ_TIMEOUT, Deadline::none));
+
+    Assert.assertEquals(READ_TIMEOUT, request.getReadTimeout());
+  }
+
+  @Test(expected = DeadlineExceededException.class)
+  public void initialize_expiredDeadline() throws IOException {
+    buildRequest(new ApiRequestInitializer(null, CONNECT_TIMEOUT, READ_TIMEOUT, () -> Deadline.after(-1)));
+  }
+}
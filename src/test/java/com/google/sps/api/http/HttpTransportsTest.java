@@ -0,0 +1,47 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.api.http;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HttpTransportsTest {
+
+  @After
+  public void tearDown() {
+    System.clearProperty(HttpTransports.TRANSPORT_PROPERTY);
+  }
+
+  @Test
+  public void fromSystemProperties_pooled() {
+    System.setProperty(HttpTransports.TRANSPORT_PROPERTY, HttpTransports.POOLED_TRANSPORT);
+
+    HttpTransport transport = HttpTransports.fromSystemProperties();
+
+    Assert.assertTrue(transport instanceof ApacheHttpTransport);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fromSystemProperties_unknownTransport() {
+    System.setProperty(HttpTransports.TRANSPORT_PROPERTY, "unknown");
+
+    HttpTransports.fromSystemProperties();
+  }
+}
@@ -25,6 +25,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static com.google.sps.converter.TimeConverter.epochInMilliseconds;
@@ -198,6 +199,12 @@ public class TasksClientHelperTest {
     Assert.assertEquals(expectedId, actualId);
   }
 
+  @Test
+  public void getTaskListIds_noTaskList() {
+    // The API returns no items when there is no task list.
+    Assert.assertEquals(Collections.emptyList(), TasksClientHelper.getTaskListIds(null));
+  }
+
   /**
    * Returns a DateTime object representing the given date and time.
    */
@@ -0,0 +1,66 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.converter;
+
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.google.sps.api.concurrent.ConcurrentStress;
+import com.google.sps.data.ScheduleMessage;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class JsonConverterTest {
+  private static final int THREADS = 16;
+
+  @Test
+  public void toJson_skipsMissingIds() throws Exception {
+    String json = JsonConverter.toJson(new ScheduleMessage("Select some tasks to schedule."));
+
+    Assert.assertEquals("{\"message\":\"Select some tasks to schedule.\"}", json);
+  }
+
+  @Test
+  public void getObjectMapper_registersAfterburner() {
+    Assert.assertTrue(JsonConverter.getObjectMapper().getRegisteredModuleIds()
+        .contains(new AfterburnerModule().getTypeId()));
+  }
+
+  @Test
+  public void toJson_concurrentCalls() throws Exception {
+    AtomicInteger nextThread = new AtomicInteger();
+
+    List<Boolean> results = ConcurrentStress.run(THREADS, () -> {
+      int thread = nextThread.getAndIncrement();
+      String taskId = "task" + thread;
+      for (int i = 0; i < 100; i++) {
+        ScheduleMessage message = new ScheduleMessage("1 tasks inserted",
+            Arrays.asList(taskId), Arrays.asList(), Arrays.asList());
+        String expectedJson = "{\"message\":\"1 tasks inserted\",\"committedTaskIds\":[\"" + taskId + "\"],"
+            + "\"incompleteTaskIds\":[],\"skippedTaskIds\":[]}";
+        if (!expectedJson.equals(JsonConverter.toJson(message))) {
+          return false;
+        }
+      }
+      return true;
+    });
+
+    Assert.assertFalse(results.contains(false));
+  }
+}
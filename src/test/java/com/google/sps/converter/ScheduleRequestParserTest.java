@@ -0,0 +1,182 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.converter;
+
+import com.google.sps.data.ScheduleRequest;
+import com.google.sps.data.SelectedTask;
+import com.google.sps.data.WorkingHours;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ScheduleRequestParserTest {
+  private static final String WORKING_HOURS =
+      "\"workingHours\": {\"startHour\": 9, \"startMin\": 0, \"endHour\": 18, \"endMin\": 30}";
+
+  private static ScheduleRequest parse(String json) throws InvalidRequestException, IOException {
+    return ScheduleRequestParser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static void assertInvalid(String json, String expectedMessage) throws IOException {
+    try {
+      parse(json);
+      Assert.fail("The request should be invalid: " + json);
+    } catch (InvalidRequestException exception) {
+      Assert.assertEquals(expectedMessage, exception.getMessage());
+    }
+  }
+
+  @Test
+  public void parse_fullRequest() throws Exception {
+    ScheduleRequest scheduleRequest = parse("{\"tasks\": ["
+        + "{\"id\": \"1\", \"taskListId\": \"list\", \"durationMinutes\": 30},"
+        + "{\"durationMinutes\": 90, \"id\": \"2\", \"taskListId\": \"other\"}],"
+        + "\"startDate\": \"2020-08-20\", \"endDate\": \"2020-08-21\", " + WORKING_HOURS + "}");
+
+    Assert.assertEquals(2, scheduleRequest.getTasks().size());
+    SelectedTask secondTask = scheduleRequest.getTasks().get(1);
+    Assert.assertEquals("2", secondTask.getId());
+    Assert.assertEquals("other", secondTask.getTaskListId());
+    Assert.assertEquals(TimeUnit.MINUTES.toMillis(90), secondTask.getDuration());
+    Assert.assertTrue(scheduleRequest.hasTaskListIds());
+    Assert.assertEquals("2020-08-20", scheduleRequest.getStartDate());
+    Assert.assertEquals("2020-08-21", scheduleRequest.getEndDate());
+    Assert.assertEquals(18, scheduleRequest.getWorkingHours().getEndHour());
+    Assert.assertEquals(30, scheduleRequest.getWorkingHours().getEndMin());
+  }
+
+  @Test
+  public void parse_optionalFieldsMissing() throws Exception {
+    ScheduleRequest scheduleRequest = parse(
+        "{\"tasks\": [{\"id\": \"1\", \"durationMinutes\": 30}], " + WORKING_HOURS + "}");
+
+    Assert.assertFalse(scheduleRequest.hasTaskListIds());
+    Assert.assertNull(scheduleRequest.getStartDate());
+    Assert.assertNull(scheduleRequest.getEndDate());
+  }
+
+  @Test
+  public void parse_notJson() throws IOException {
+    assertInvalid("taskId=1&taskDuration=30", "The request is not valid JSON");
+  }
+
+  @Test
+  public void parse_noTasks() throws IOException {
+    assertInvalid("{\"tasks\": [], " + WORKING_HOURS + "}", "Select some tasks to schedule.");
+  }
+
+  @Test
+  public void parse_unknownField() throws IOException {
+    assertInvalid("{\"tasks\": [{\"id\": \"1\", \"durationMinutes\": 30, \"title\": \"Report\"}], "
+        + WORKING_HOURS + "}", "Unknown task field title");
+  }
+
+  @Test
+  public void parse_repeatedField() throws IOException {
+    assertInvalid("{\"tasks\": [{\"id\": \"1\", \"id\": \"2\", \"durationMinutes\": 30}], "
+        + WORKING_HOURS + "}", "The request is not valid JSON");
+  }
+
+  @Test
+  public void parse_durationOutOfRange() throws IOException {
+    assertInvalid("{\"tasks\": [{\"id\": \"1\", \"durationMinutes\": 0}], " + WORKING_HOURS + "}",
+        "durationMinutes must be between 1 and 1440");
+    assertInvalid("{\"tasks\": [{\"id\": \"1\", \"durationMinutes\": 99999999999}], " + WORKING_HOURS + "}",
+        "durationMinutes must be between 1 and 1440");
+  }
+
+  @Test
+  public void parseDuration_sameRangeAsJson() throws InvalidRequestException {
+    Assert.assertEquals(TimeUnit.MINUTES.toMillis(1), ScheduleRequestParser.parseDuration("taskDuration", "1"));
+    Assert.assertEquals(TimeUnit.MINUTES.toMillis(ScheduleRequestParser.MAX_DURATION_MINUTES),
+        ScheduleRequestParser.parseDuration("taskDuration", "1440"));
+    try {
+      ScheduleRequestParser.parseDuration("taskDuration", "1441");
+      Assert.fail("The duration should be out of range");
+    } catch (InvalidRequestException exception) {
+      Assert.assertEquals("taskDuration must be between 1 and 1440", exception.getMessage());
+    }
+  }
+
+  @Test
+  public void parse_durationNotAnInteger() throws IOException {
+    assertInvalid("{\"tasks\": [{\"id\": \"1\", \"durationMinutes\": \"30\"}], " + WORKING_HOURS + "}",
+        "durationMinutes must be an integer");
+  }
+
+  @Test
+  public void parse_someTaskListsMissing() throws IOException {
+    assertInvalid("{\"tasks\": [{\"id\": \"1\", \"taskListId\": \"list\", \"durationMinutes\": 30},"
+        + "{\"id\": \"2\", \"durationMinutes\": 30}], " + WORKING_HOURS + "}",
+        "Either all the tasks or none of them must have a taskListId");
+  }
+
+  @Test
+  public void parse_invalidDate() throws IOException {
+    assertInvalid("{\"tasks\": [{\"id\": \"1\", \"durationMinutes\": 30}], \"startDate\": \"20/08/2020\", "
+        + WORKING_HOURS + "}", "startDate must be a date like 2020-08-20");
+  }
+
+  @Test
+  public void parse_endBeforeStart() throws IOException {
+    assertInvalid("{\"tasks\": [{\"id\": \"1\", \"durationMinutes\": 30}], \"workingHours\": "
+        + "{\"startHour\": 18, \"startMin\": 0, \"endHour\": 9, \"endMin\": 0}}",
+        "Select valid working hours (end time must be greater than start time)");
+  }
+
+  @Test
+  public void parse_contentAfterRequest() throws IOException {
+    assertInvalid("{\"tasks\": [{\"id\": \"1\", \"durationMinutes\": 30}], " + WORKING_HOURS + "} {}",
+        "Unexpected content after the request");
+  }
+
+  @Test
+  public void toJson_isParsedBack() throws Exception {
+    ScheduleRequest scheduleRequest = new ScheduleRequest(
+        Arrays.asList(new SelectedTask("1", "list", TimeUnit.MINUTES.toMillis(45))),
+        "2020-08-20", "2020-08-21", new WorkingHours(9, 0, 18, 30));
+
+    ScheduleRequest parsedRequest = parse(ScheduleRequestParser.toJson(scheduleRequest));
+
+    SelectedTask task = parsedRequest.getTasks().get(0);
+    Assert.assertEquals("1", task.getId());
+    Assert.assertEquals("list", task.getTaskListId());
+    Assert.assertEquals(TimeUnit.MINUTES.toMillis(45), task.getDuration());
+    Assert.assertEquals("2020-08-20", parsedRequest.getStartDate());
+    Assert.assertEquals("2020-08-21", parsedRequest.getEndDate());
+    Assert.assertEquals(18, parsedRequest.getWorkingHours().getEndHour());
+    Assert.assertEquals(30, parsedRequest.getWorkingHours().getEndMin());
+  }
+
+  @Test
+  public void toJson_leavesOutInvalidDates() throws Exception {
+    ScheduleRequest scheduleRequest = new ScheduleRequest(
+        Arrays.asList(new SelectedTask("1", null, TimeUnit.MINUTES.toMillis(45))),
+        "", null, new WorkingHours(9, 0, 18, 30));
+
+    ScheduleRequest parsedRequest = parse(ScheduleRequestParser.toJson(scheduleRequest));
+
+    Assert.assertNull(parsedRequest.getTasks().get(0).getTaskListId());
+    Assert.assertNull(parsedRequest.getStartDate());
+    Assert.assertNull(parsedRequest.getEndDate());
+  }
+}
@@ -0,0 +1,236 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.jobs;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.appengine.api.taskqueue.TransientFailureException;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.data.ScheduleMessage;
+import com.google.sps.data.ScheduleRequest;
+import com.google.sps.data.SelectedTask;
+import com.google.sps.data.WorkingHours;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public class DatastoreScheduleJobQueueTest {
+  private static final String USER_ID = "user";
+  private static final long WAIT_MILLIS = 5000;
+  private static final ScheduleRequest SCHEDULE_REQUEST = new ScheduleRequest(
+      Arrays.asList(new SelectedTask("task", "list", TimeUnit.MINUTES.toMillis(30))),
+      null, null, new WorkingHours(9, 0, 18, 0));
+  private final LocalServiceTestHelper helper = new LocalServiceTestHelper();
+  private final Map<Key, Entity> entities = new HashMap<>();
+  private Queue queue;
+  private DatastoreScheduleJobQueue jobQueue;
+
+  @Before
+  public void setUp() throws EntityNotFoundException {
+    helper.setUp();
+    DatastoreService datastore = Mockito.mock(DatastoreService.class);
+    Mockito.when(datastore.beginTransaction()).thenReturn(Mockito.mock(Transaction.class));
+    Mockito.when(datastore.put(ArgumentMatchers.any(Entity.class)))
+        .thenAnswer(invocation -> putEntity(invocation.getArgument(0)));
+    Mockito.when(datastore.put(ArgumentMatchers.any(Transaction.class), ArgumentMatchers.any(Entity.class)))
+        .thenAnswer(invocation -> putEntity(invocation.getArgument(1)));
+    Mockito.when(datastore.get(ArgumentMatchers.any(Key.class)))
+        .thenAnswer(invocation -> getEntity(invocation.getArgument(0)));
+    Mockito.when(datastore.get(ArgumentMatchers.any(Transaction.class), ArgumentMatchers.any(Key.class)))
+        .thenAnswer(invocation -> getEntity(invocation.getArgument(1)));
+    queue = Mockito.mock(Queue.class);
+    jobQueue = new DatastoreScheduleJobQueue(datastore, queue);
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  private Key putEntity(Entity entity) {
+    entities.put(entity.getKey(), entity.clone());
+    return entity.getKey();
+  }
+
+  private Entity getEntity(Key key) throws EntityNotFoundException {
+    Entity entity = entities.get(key);
+    if (entity == null) {
+      throw new EntityNotFoundException(key);
+    }
+    return entity.clone();
+  }
+
+  @Test
+  public void submit_storesAndEnqueuesTheJob() throws IOException {
+    ScheduleJob job = jobQueue.submit(USER_ID, SCHEDULE_REQUEST);
+
+    Assert.assertEquals(ScheduleJob.State.QUEUED, jobQueue.get(USER_ID, job.getId()).getState());
+    Mockito.verify(queue).add(ArgumentMatchers.any(TaskOptions.class));
+  }
+
+  @Test(expected = IOException.class)
+  public void submit_enqueueFailed() throws IOException {
+    Mockito.when(queue.add(ArgumentMatchers.any(TaskOptions.class))).thenThrow(new TransientFailureException(""));
+
+    jobQueue.submit(USER_ID, SCHEDULE_REQUEST);
+  }
+
+  @Test
+  public void run_storesProgressAndResult() throws IOException {
+    ScheduleJob job = jobQueue.submit(USER_ID, SCHEDULE_REQUEST);
+
+    jobQueue.run(job.getId(), Deadline.after(WAIT_MILLIS), (scheduleRequest, runningJob) -> {
+      Assert.assertEquals("task", scheduleRequest.getTasks().get(0).getId());
+      Assert.assertEquals(USER_ID, runningJob.getUserId());
+      runningJob.taskScheduled();
+      runningJob.taskSaved();
+      return CompletableFuture.completedFuture(new ScheduleMessage("1 tasks inserted"));
+    });
+
+    ScheduleJob readJob = jobQueue.get(USER_ID, job.getId());
+    Assert.assertEquals(ScheduleJob.State.DONE, readJob.getState());
+    Assert.assertEquals(1, readJob.getScheduledTasks());
+    Assert.assertEquals(1, readJob.getSavedTasks());
+    Assert.assertEquals("{\"message\":\"1 tasks inserted\"}", readJob.getResult());
+  }
+
+  @Test
+  public void run_failedScheduling() throws IOException {
+    ScheduleJob job = jobQueue.submit(USER_ID, SCHEDULE_REQUEST);
+    CompletableFuture<ScheduleMessage> result = new CompletableFuture<>();
+    result.completeExceptionally(new IOException("API error"));
+
+    jobQueue.run(job.getId(), Deadline.after(WAIT_MILLIS), (scheduleRequest, runningJob) -> result);
+
+    ScheduleJob readJob = jobQueue.get(USER_ID, job.getId());
+    Assert.assertEquals(ScheduleJob.State.FAILED, readJob.getState());
+    Assert.assertNull(readJob.getResult());
+    Assert.assertNotNull(readJob.getError());
+  }
+
+  @Test
+  public void run_deadlineExceededCancelsScheduling() throws IOException {
+    ScheduleJob job = jobQueue.submit(USER_ID, SCHEDULE_REQUEST);
+    CompletableFuture<ScheduleMessage> result = new CompletableFuture<>();
+
+    jobQueue.run(job.getId(), Deadline.after(50), (scheduleRequest, runningJob) -> result);
+
+    Assert.assertEquals(ScheduleJob.State.FAILED, jobQueue.get(USER_ID, job.getId()).getState());
+    Assert.assertTrue(result.isCancelled());
+  }
+
+  @Test
+  public void run_jobDeliveredTwiceRunsOnce() throws IOException {
+    ScheduleJob job = jobQueue.submit(USER_ID, SCHEDULE_REQUEST);
+    AtomicInteger runs = new AtomicInteger();
+    ScheduleJobQueue.Work work = (scheduleRequest, runningJob) -> {
+      runs.incrementAndGet();
+      return CompletableFuture.completedFuture(new ScheduleMessage("0 tasks inserted"));
+    };
+
+    jobQueue.run(job.getId(), Deadline.after(WAIT_MILLIS), work);
+    jobQueue.run(job.getId(), Deadline.after(WAIT_MILLIS), work);
+    jobQueue.run("unknown", Deadline.after(WAIT_MILLIS), work);
+
+    Assert.assertEquals(1, runs.get());
+  }
+
+  /**
+   * Moves the date of the job far enough in the past for its lease to expire.
+   */
+  private void expireLease(String jobId, String dateProperty) {
+    long leaseMillis = ScheduleJobQueue.getTimeoutMillis() + TimeUnit.HOURS.toMillis(1);
+    Entity entity = entities.get(KeyFactory.createKey("ScheduleJob", jobId));
+    entity.setProperty(dateProperty, new Date(System.currentTimeMillis() - leaseMillis));
+  }
+
+  @Test
+  public void get_lostQueuedJobFails() throws IOException {
+    ScheduleJob job = jobQueue.submit(USER_ID, SCHEDULE_REQUEST);
+    expireLease(job.getId(), DatastoreScheduleJobQueue.CREATED_PROPERTY);
+
+    ScheduleJob readJob = jobQueue.get(USER_ID, job.getId());
+
+    Assert.assertEquals(ScheduleJob.State.FAILED, readJob.getState());
+    Assert.assertNotNull(readJob.getError());
+  }
+
+  @Test
+  public void get_lostRunningJobFails() throws IOException {
+    ScheduleJob job = jobQueue.submit(USER_ID, SCHEDULE_REQUEST);
+    // The instance running the job died before storing its outcome
+    Entity entity = entities.get(KeyFactory.createKey("ScheduleJob", job.getId()));
+    entity.setProperty("state", ScheduleJob.State.RUNNING.name());
+    expireLease(job.getId(), DatastoreScheduleJobQueue.STARTED_PROPERTY);
+
+    Assert.assertEquals(ScheduleJob.State.FAILED, jobQueue.get(USER_ID, job.getId()).getState());
+  }
+
+  @Test
+  public void get_runningJobWithinLease() throws IOException {
+    ScheduleJob job = jobQueue.submit(USER_ID, SCHEDULE_REQUEST);
+    expireLease(job.getId(), DatastoreScheduleJobQueue.CREATED_PROPERTY);
+    Entity entity = entities.get(KeyFactory.createKey("ScheduleJob", job.getId()));
+    entity.setProperty("state", ScheduleJob.State.RUNNING.name());
+    entity.setProperty(DatastoreScheduleJobQueue.STARTED_PROPERTY, new Date());
+
+    Assert.assertEquals(ScheduleJob.State.RUNNING, jobQueue.get(USER_ID, job.getId()).getState());
+  }
+
+  @Test
+  public void run_lateDeliveryOfExpiredJobIsNotRun() throws IOException {
+    ScheduleJob job = jobQueue.submit(USER_ID, SCHEDULE_REQUEST);
+    expireLease(job.getId(), DatastoreScheduleJobQueue.CREATED_PROPERTY);
+    AtomicInteger runs = new AtomicInteger();
+
+    jobQueue.run(job.getId(), Deadline.after(WAIT_MILLIS), (scheduleRequest, runningJob) -> {
+      runs.incrementAndGet();
+      return CompletableFuture.completedFuture(new ScheduleMessage("0 tasks inserted"));
+    });
+
+    Assert.assertEquals(0, runs.get());
+    Assert.assertEquals(ScheduleJob.State.FAILED, jobQueue.get(USER_ID, job.getId()).getState());
+  }
+
+  @Test
+  public void get_otherUsersJob() throws IOException {
+    ScheduleJob job = jobQueue.submit(USER_ID, SCHEDULE_REQUEST);
+
+    Assert.assertNull(jobQueue.get("otherUser", job.getId()));
+    Assert.assertNull(jobQueue.get(USER_ID, "unknown"));
+    Assert.assertNull(jobQueue.get(USER_ID, ""));
+  }
+}
@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.scheduler;
+
+import com.google.api.services.tasks.model.Task;
+import com.google.common.base.Ticker;
+import com.google.sps.data.DateRange;
+import com.google.sps.data.ExtendedTask;
+import com.google.sps.data.ScheduleInputs;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ScheduleInputsCacheTest {
+  private static final String USER_ID = "user";
+  private static final long EXPIRY_SECONDS = 120;
+  private final AtomicLong nanos = new AtomicLong();
+  private ScheduleInputsCache inputsCache;
+
+  @Before
+  public void setUp() {
+    Ticker ticker = new Ticker() {
+      @Override
+      public long read() {
+        return nanos.get();
+      }
+    };
+    inputsCache = new ScheduleInputsCache(EXPIRY_SECONDS, ticker);
+  }
+
+  private static ScheduleInputs getInputs() {
+    ExtendedTask task = new ExtendedTask(new Task().setId("1"), TimeUnit.MINUTES.toMillis(30), "list");
+    LocalDate day = LocalDate.parse("2020-08-20");
+    return new ScheduleInputs(Collections.singletonList(task), "UTC", new DateRange(day, day),
+        Collections.emptyList());
+  }
+
+  @Test
+  public void get_notCached() {
+    Assert.assertNull(inputsCache.get(USER_ID));
+  }
+
+  @Test
+  public void get_copyOfTheInputs() {
+    ScheduleInputs inputs = getInputs();
+    inputsCache.put(USER_ID, inputs);
+    inputs.getTasks().get(0).getTask().setDue("2020-08-20T09:00:00.000Z");
+
+    ScheduleInputs cachedInputs = inputsCache.get(USER_ID);
+    cachedInputs.getTasks().get(0).getTask().setTitle("Changed");
+
+    ExtendedTask cachedTask = inputsCache.get(USER_ID).findTask("list", "1");
+    Assert.assertNull(cachedTask.getDue());
+    Assert.assertNull(cachedTask.getTitle());
+  }
+
+  @Test
+  public void get_expired() {
+    inputsCache.put(USER_ID, getInputs());
+
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(EXPIRY_SECONDS));
+
+    Assert.assertNull(inputsCache.get(USER_ID));
+  }
+
+  @Test
+  public void invalidate() {
+    inputsCache.put(USER_ID, getInputs());
+
+    inputsCache.invalidate(USER_ID);
+
+    Assert.assertNull(inputsCache.get(USER_ID));
+  }
+}
@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.api.concurrent.AdaptiveConcurrencyLimit;
+import java.io.IOException;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public class AdmissionControlFilterTest {
+  private AdmissionControlFilter filter;
+  private FilterChain chain;
+  private HttpServletResponse response;
+
+  @Before
+  public void setUp() {
+    // One request at a time per endpoint
+    filter = new AdmissionControlFilter(path -> new AdaptiveConcurrencyLimit(path, 1, 1, 1), true, 5);
+    chain = Mockito.mock(FilterChain.class);
+    response = Mockito.mock(HttpServletResponse.class);
+  }
+
+  private static HttpServletRequest newRequest(String path) {
+    HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getServletPath()).thenReturn(path);
+    return request;
+  }
+
+  private static HttpServletRequest newAsyncRequest(String path, AsyncContext asyncContext) {
+    HttpServletRequest request = newRequest(path);
+    Mockito.when(request.isAsyncStarted()).thenReturn(true);
+    Mockito.when(request.getAsyncContext()).thenReturn(asyncContext);
+    return request;
+  }
+
+  @Test
+  public void doFilter_rejectsOverLimitWithRetryAfter() throws IOException, ServletException {
+    filter.doFilter(newAsyncRequest("/schedule", Mockito.mock(AsyncContext.class)), response, chain);
+    HttpServletRequest rejected = newRequest("/schedule");
+
+    filter.doFilter(rejected, response, chain);
+
+    Mockito.verify(chain, Mockito.never()).doFilter(rejected, response);
+    Mockito.verify(response).setHeader("Retry-After", "5");
+    Mockito.verify(response).sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+  }
+
+  @Test
+  public void doFilter_limitsEachEndpointSeparately() throws IOException, ServletException {
+    filter.doFilter(newAsyncRequest("/schedule", Mockito.mock(AsyncContext.class)), response, chain);
+    HttpServletRequest request = newRequest("/user");
+
+    filter.doFilter(request, response, chain);
+
+    Mockito.verify(chain).doFilter(request, response);
+    Mockito.verify(response, Mockito.never()).sendError(Mockito.anyInt());
+  }
+
+  @Test
+  public void doFilter_releasesSyncRequestWhenChainReturns() throws IOException, ServletException {
+    filter.doFilter(newRequest("/user"), response, chain);
+    HttpServletRequest request = newRequest("/user");
+
+    filter.doFilter(request, response, chain);
+
+    Mockito.verify(chain).doFilter(request, response);
+  }
+
+  @Test
+  public void doFilter_releasesAsyncRequestWhenComplete() throws IOException, ServletException {
+    AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+    filter.doFilter(newAsyncRequest("/load_tasks", asyncContext), response, chain);
+    ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+    Mockito.verify(asyncContext).addListener(listener.capture());
+    HttpServletRequest request = newRequest("/load_tasks");
+
+    listener.getValue().onComplete(new AsyncEvent(asyncContext));
+    filter.doFilter(request, response, chain);
+
+    Mockito.verify(chain).doFilter(request, response);
+  }
+
+  @Test
+  public void doFilter_disabledLetsAllRequestsThrough() throws IOException, ServletException {
+    filter = new AdmissionControlFilter(path -> new AdaptiveConcurrencyLimit(path, 1, 1, 1), false, 5);
+    filter.doFilter(newAsyncRequest("/schedule", Mockito.mock(AsyncContext.class)), response, chain);
+    HttpServletRequest request = newRequest("/schedule");
+
+    filter.doFilter(request, response, chain);
+
+    Mockito.verify(chain).doFilter(request, response);
+  }
+}
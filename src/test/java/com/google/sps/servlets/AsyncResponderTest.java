@@ -0,0 +1,134 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.api.concurrent.Deadline;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public class AsyncResponderTest {
+  private HttpServletRequest request;
+  private HttpServletResponse response;
+  private AsyncContext asyncContext;
+  private StringWriter responseBody;
+  private AsyncResponder asyncResponder;
+
+  @Before
+  public void setUp() throws IOException {
+    request = Mockito.mock(HttpServletRequest.class);
+    response = Mockito.mock(HttpServletResponse.class);
+    asyncContext = Mockito.mock(AsyncContext.class);
+    Mockito.when(request.startAsync(request, response)).thenReturn(asyncContext);
+    responseBody = new StringWriter();
+    Mockito.when(response.getWriter()).thenReturn(new PrintWriter(responseBody));
+    asyncResponder = new AsyncResponder(Runnable::run);
+  }
+
+  private void respond(CompletableFuture<String> resultFuture) {
+    asyncResponder.respond(request, response, Deadline.after(10000), () -> resultFuture,
+        (result, asyncResponse) -> asyncResponse.getWriter().print(result));
+  }
+
+  private AsyncListener getListener() {
+    ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+    Mockito.verify(asyncContext).addListener(listener.capture());
+    return listener.getValue();
+  }
+
+  @Test
+  public void respond_writesResultAndCompletes() {
+    CompletableFuture<String> resultFuture = new CompletableFuture<>();
+
+    respond(resultFuture);
+
+    Mockito.verify(asyncContext, Mockito.never()).complete();
+    resultFuture.complete("tasks");
+    Assert.assertEquals("tasks", responseBody.toString());
+    Mockito.verify(asyncContext).complete();
+  }
+
+  @Test
+  public void respond_failure() throws IOException {
+    CompletableFuture<String> resultFuture = new CompletableFuture<>();
+    respond(resultFuture);
+
+    resultFuture.completeExceptionally(new IOException("API error"));
+
+    Mockito.verify(response).sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+    Mockito.verify(asyncContext).complete();
+  }
+
+  @Test
+  public void respond_timeoutDropsLateResult() throws IOException {
+    CompletableFuture<String> resultFuture = new CompletableFuture<>();
+    respond(resultFuture);
+
+    getListener().onTimeout(new AsyncEvent(asyncContext));
+    resultFuture.complete("late");
+
+    Mockito.verify(response).sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    Assert.assertEquals("", responseBody.toString());
+    Mockito.verify(asyncContext).complete();
+  }
+
+  @Test
+  public void respond_timeoutCancelsResult() throws IOException {
+    CompletableFuture<String> resultFuture = new CompletableFuture<>();
+    respond(resultFuture);
+
+    getListener().onTimeout(new AsyncEvent(asyncContext));
+
+    Assert.assertTrue(resultFuture.isCancelled());
+  }
+
+  @Test
+  public void respond_failureWriterWritesFailures() throws IOException {
+    CompletableFuture<String> failedFuture = new CompletableFuture<>();
+    CompletableFuture<String> lateFuture = new CompletableFuture<>();
+    List<Integer> failureStatuses = new ArrayList<>();
+    AsyncResponder.FailureWriter failureWriter = (status, asyncResponse) -> failureStatuses.add(status);
+
+    asyncResponder.respond(request, response, Deadline.after(10000), () -> failedFuture,
+        (result, asyncResponse) -> asyncResponse.getWriter().print(result), failureWriter);
+    failedFuture.completeExceptionally(new IOException("API error"));
+    asyncResponder.respond(request, response, Deadline.after(10000), () -> lateFuture,
+        (result, asyncResponse) -> asyncResponse.getWriter().print(result), failureWriter);
+    ArgumentCaptor<AsyncListener> listeners = ArgumentCaptor.forClass(AsyncListener.class);
+    Mockito.verify(asyncContext, Mockito.times(2)).addListener(listeners.capture());
+    listeners.getAllValues().get(1).onTimeout(new AsyncEvent(asyncContext));
+
+    Assert.assertEquals(Arrays.asList(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+        HttpServletResponse.SC_SERVICE_UNAVAILABLE), failureStatuses);
+    Mockito.verify(response, Mockito.never()).sendError(Mockito.anyInt());
+  }
+}
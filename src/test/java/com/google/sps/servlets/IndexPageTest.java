@@ -0,0 +1,55 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.data.Bootstrap;
+import com.google.sps.data.TaskSummary;
+import com.google.api.services.tasks.model.Task;
+import java.io.IOException;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IndexPageTest {
+  private static final String HTML = "<html><head><title>Scheduler</title></head><body></body></html>";
+
+  @Test
+  public void renderInsertsDataAtEndOfHead() throws IOException {
+    IndexPage indexPage = new IndexPage(HTML);
+
+    String page = indexPage.render(new Bootstrap("user@example.com", null));
+
+    String expected = "<html><head><title>Scheduler</title>"
+        + "<script id=\"bootstrap\" type=\"application/json\">{\"email\":\"user@example.com\"}</script>\n"
+        + "</head><body></body></html>";
+    Assert.assertEquals(expected, page);
+  }
+
+  @Test
+  public void renderEscapesMarkupInStrings() throws IOException {
+    IndexPage indexPage = new IndexPage(HTML);
+    Task task = new Task().setId("id").setTitle("</script><script>alert(1) & \u2028");
+
+    String page = indexPage.render(
+        new Bootstrap("user@example.com", Collections.singletonList(TaskSummary.of(task))));
+
+    Assert.assertEquals(1, page.split("</script>", -1).length - 1);
+    Assert.assertTrue(page.contains("\\u003c/script\\u003e\\u003cscript\\u003ealert(1) \\u0026 \\u2028"));
+    Assert.assertFalse(page.contains("\u2028"));
+  }
+}
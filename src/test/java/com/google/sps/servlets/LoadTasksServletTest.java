@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.api.services.tasks.model.Task;
+import com.google.sps.converter.JsonConverter;
+import com.google.sps.data.ListedTask;
+import com.google.sps.data.TaskSummary;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LoadTasksServletTest {
+
+  private static String writeTasksJson(List<TaskSummary> tasks) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    LoadTasksServlet.writeTasksJson(tasks, outputStream);
+    return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void writeTasksJson_sameAsMapper() throws IOException {
+    List<TaskSummary> tasks = TaskSummary.ofTasks(Arrays.asList(
+        new Task().setId("1").setTitle("Write report").setNotes("Duration: 60"),
+        new Task().setId("2").setTitle("Caf\u00e9").setDue("2020-08-20T00:00:00.000Z")));
+
+    Assert.assertEquals(JsonConverter.toJson(tasks), writeTasksJson(tasks));
+  }
+
+  @Test
+  public void writeTasksJson_onlyRenderedFields() throws IOException {
+    Task task = new Task().setId("1").setTitle("Write report").setNotes("Duration: 60")
+        .setDue("2020-08-20T00:00:00.000Z").setEtag("etag").setSelfLink("link").setStatus("needsAction");
+    List<TaskSummary> tasks = TaskSummary.ofListedTasks(Collections.singletonList(new ListedTask("list", task)));
+
+    Assert.assertEquals("[{\"id\":\"1\",\"title\":\"Write report\",\"notes\":\"Duration: 60\","
+        + "\"due\":\"2020-08-20T00:00:00.000Z\",\"taskListId\":\"list\"}]", writeTasksJson(tasks));
+  }
+
+  @Test
+  public void writeTasksJson_noTasks() throws IOException {
+    Assert.assertEquals("[]", writeTasksJson(Collections.emptyList()));
+  }
+
+  private static List<ListedTask> getListedTasks(String secondUpdate, String secondDue) {
+    return Arrays.asList(
+        new ListedTask("list", new Task().setId("1").setUpdated("2020-08-19T10:00:00.000Z")),
+        new ListedTask("list", new Task().setId("2").setUpdated(secondUpdate).setDue(secondDue)));
+  }
+
+  @Test
+  public void getETag_sameTasksSameETag() {
+    String eTag = LoadTasksServlet.getETag(getListedTasks("2020-08-19T10:00:00.000Z", null), true);
+
+    Assert.assertEquals(eTag, LoadTasksServlet.getETag(getListedTasks("2020-08-19T10:00:00.000Z", null), true));
+    Assert.assertTrue(eTag.startsWith("\"") && eTag.endsWith("\""));
+    Assert.assertNotEquals(eTag, LoadTasksServlet.getETag(getListedTasks("2020-08-19T10:00:00.000Z", null), false));
+  }
+
+  @Test
+  public void getETag_changedTaskChangesETag() {
+    String eTag = LoadTasksServlet.getETag(getListedTasks("2020-08-19T10:00:00.000Z", null), true);
+
+    Assert.assertNotEquals(eTag, LoadTasksServlet.getETag(getListedTasks("2020-08-19T11:00:00.000Z", null), true));
+    Assert.assertNotEquals(eTag,
+        LoadTasksServlet.getETag(getListedTasks("2020-08-19T10:00:00.000Z", "2020-08-20T00:00:00.000Z"), true));
+  }
+
+  @Test
+  public void getETag_filteredOutTaskChangesETag() {
+    List<ListedTask> listedTasks = getListedTasks("2020-08-19T10:00:00.000Z", null);
+    String eTag = LoadTasksServlet.getETag(listedTasks, true);
+
+    Assert.assertNotEquals(eTag, LoadTasksServlet.getETag(listedTasks.subList(0, 1), true));
+  }
+
+  @Test
+  public void matchesETag() {
+    String eTag = "\"abc\"";
+
+    Assert.assertTrue(LoadTasksServlet.matchesETag("\"abc\"", eTag));
+    Assert.assertTrue(LoadTasksServlet.matchesETag("\"old\", W/\"abc\"", eTag));
+    Assert.assertTrue(LoadTasksServlet.matchesETag("*", eTag));
+    Assert.assertFalse(LoadTasksServlet.matchesETag("\"old\"", eTag));
+    Assert.assertFalse(LoadTasksServlet.matchesETag(null, eTag));
+  }
+}
@@ -0,0 +1,100 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.data.ScheduleMessage;
+import com.google.sps.data.ScheduleProgress;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public class NdjsonWriterTest {
+  private HttpServletResponse response;
+  private StringWriter responseBody;
+
+  @Before
+  public void setUp() throws IOException {
+    response = Mockito.mock(HttpServletResponse.class);
+    responseBody = new StringWriter();
+    Mockito.when(response.getWriter()).thenReturn(new PrintWriter(responseBody));
+  }
+
+  @Test
+  public void write_oneLinePerObject() {
+    NdjsonWriter ndjsonWriter = new NdjsonWriter(response);
+
+    ndjsonWriter.write(ScheduleProgress.scheduled("1", "2020-08-20T09:00:00.000Z"));
+    ndjsonWriter.write(ScheduleProgress.saved("1", "COMMITTED"));
+    ndjsonWriter.write(ScheduleProgress.done(new ScheduleMessage("1 tasks inserted")));
+
+    Mockito.verify(response).setContentType(NdjsonWriter.MEDIA_TYPE);
+    Assert.assertEquals(
+        "{\"type\":\"scheduled\",\"taskId\":\"1\",\"due\":\"2020-08-20T09:00:00.000Z\"}\n"
+        + "{\"type\":\"saved\",\"taskId\":\"1\",\"status\":\"COMMITTED\"}\n"
+        + "{\"type\":\"done\",\"result\":{\"message\":\"1 tasks inserted\"}}\n",
+        responseBody.toString());
+  }
+
+  @Test
+  public void write_failedLine() {
+    NdjsonWriter ndjsonWriter = new NdjsonWriter(response);
+
+    ndjsonWriter.write(ScheduleProgress.failed(HttpServletResponse.SC_SERVICE_UNAVAILABLE));
+
+    Assert.assertEquals("{\"type\":\"failed\",\"httpStatus\":503}\n",
+        responseBody.toString());
+  }
+
+  @Test
+  public void write_closedDropsLines() {
+    NdjsonWriter ndjsonWriter = new NdjsonWriter(response);
+
+    ndjsonWriter.close();
+    ndjsonWriter.write(ScheduleProgress.saved("1", "COMMITTED"));
+
+    Assert.assertEquals("", responseBody.toString());
+  }
+
+  @Test
+  public void write_failedWriteDropsFollowingLines() throws IOException {
+    Writer failingWriter = Mockito.mock(Writer.class);
+    Mockito.doThrow(new IOException("Connection reset")).when(failingWriter).write(Mockito.anyString());
+    Mockito.doThrow(new IOException("Connection reset")).when(failingWriter)
+        .write(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt());
+    Mockito.when(response.getWriter()).thenReturn(new PrintWriter(failingWriter));
+    NdjsonWriter ndjsonWriter = new NdjsonWriter(response);
+
+    ndjsonWriter.write(ScheduleProgress.saved("1", "COMMITTED"));
+    ndjsonWriter.write(ScheduleProgress.saved("2", "COMMITTED"));
+
+    Mockito.verify(response, Mockito.times(1)).getWriter();
+  }
+
+  @Test
+  public void isAccepted() {
+    Assert.assertTrue(NdjsonWriter.isAccepted("application/x-ndjson, application/json;q=0.9"));
+    Assert.assertFalse(NdjsonWriter.isAccepted("application/json"));
+    Assert.assertFalse(NdjsonWriter.isAccepted(null));
+  }
+}
@@ -0,0 +1,67 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.api.services.tasks.model.Task;
+import com.google.sps.api.calendar.CalendarClientAdapter;
+import com.google.sps.api.tasks.TasksClientAdapter;
+import com.google.sps.converter.InvalidRequestException;
+import com.google.sps.data.DateRange;
+import com.google.sps.data.ExtendedTask;
+import com.google.sps.data.ScheduleInputs;
+import com.google.sps.data.ScheduleRequest;
+import com.google.sps.data.TaskSummary;
+import com.google.sps.data.WorkingHours;
+import com.google.sps.scheduler.ScheduleInputsCache;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static com.google.sps.converter.TimeConverter.minsToMillis;
+import static org.mockito.ArgumentMatchers.anyString;
+
+public class SchedulePreviewServletTest {
+  private final static String TASKS_LIST_ID = "GgwefaUJHTyr34gsd";
+  private final static String UTC_TIME_ZONE = "UTC";
+
+  @Test
+  public void previewAsync_cachedInputsNotReadNorChanged() throws InvalidRequestException {
+    String userId = "previewUser";
+    Task task = new Task();
+    task.setId("1");
+    DateRange cachedRange = new DateRange(LocalDate.parse("2020-08-20"), LocalDate.parse("2020-08-22"));
+    ScheduleInputsCache.getInstance().put(userId, new ScheduleInputs(
+        Collections.singletonList(new ExtendedTask(task, minsToMillis("30"), TASKS_LIST_ID)), UTC_TIME_ZONE,
+        cachedRange, Collections.emptyList()));
+    TasksClientAdapter tasksClientAdapter = Mockito.mock(TasksClientAdapter.class);
+    CalendarClientAdapter calendarClientAdapter = Mockito.mock(CalendarClientAdapter.class);
+    ScheduleRequest scheduleRequest = new ScheduleRequest(
+        ScheduleServletHelper.getSelectedTasks(new String[] {"1"}, new String[] {"60"}, new String[] {TASKS_LIST_ID}),
+        "2020-08-20", "2020-08-20", new WorkingHours(9, 0, 18, 0));
+
+    List<TaskSummary> placements = new SchedulePreviewServlet().previewAsync(
+        scheduleRequest, userId, tasksClientAdapter, calendarClientAdapter).join();
+
+    Assert.assertEquals(1, placements.size());
+    Assert.assertEquals("1", placements.get(0).getId());
+    Assert.assertEquals("2020-08-20T09:00:00.000Z", placements.get(0).getDue());
+    Assert.assertNull(ScheduleInputsCache.getInstance().get(userId).getTasks().get(0).getDue());
+    Mockito.verify(tasksClientAdapter, Mockito.never()).getTaskAsync(anyString(), anyString());
+    Mockito.verifyNoInteractions(calendarClientAdapter);
+  }
+}
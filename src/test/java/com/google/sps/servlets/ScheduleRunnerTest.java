@@ -0,0 +1,502 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpStatusCodes;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.tasks.model.Task;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.sps.api.calendar.CalendarClientAdapter;
+import com.google.sps.api.calendar.CalendarClientHelper;
+import com.google.sps.api.concurrent.ApiExecutors;
+import com.google.sps.api.concurrent.Deadline;
+import com.google.sps.api.concurrent.DeadlineExceededException;
+import com.google.sps.api.tasks.TasksClientAdapter;
+import com.google.sps.converter.InvalidRequestException;
+import com.google.sps.data.DateRange;
+import com.google.sps.data.ExtendedTask;
+import com.google.sps.data.ScheduleInputs;
+import com.google.sps.data.ScheduleMessage;
+import com.google.sps.data.ScheduleRequest;
+import com.google.sps.data.WorkingHours;
+import com.google.sps.scheduler.ScheduleInputsCache;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static com.google.sps.api.calendar.CalendarClientHelper.createEventWithSummary;
+import static com.google.sps.api.calendar.CalendarClientHelper.createPrivateEventWithSummaryAndDescription;
+import static com.google.sps.api.tasks.TasksClientHelper.createCustomDurationTaskWithDue;
+import static com.google.sps.api.tasks.TasksClientHelper.createDefaultDurationTaskWithDue;
+import static com.google.sps.converter.TimeConverter.createDateTime;
+import static com.google.sps.converter.TimeConverter.minsToMillis;
+import static org.mockito.AdditionalMatchers.not;
+import static org.mockito.ArgumentMatchers.*;
+
+public class ScheduleRunnerTest {
+  private final static ImmutableSet<String> TASKS_IDS = ImmutableSet.of(
+      "1", "2", "abcd", "RferEhJ65ytas", "656344234", "sdff&$%rewrETwe");
+  private final static ImmutableList<String> TASKS_DURATIONS_IN_MINUTES = ImmutableList.of(
+      "30", "60", "90", "120", "150", "180");
+  private final static String TASKS_LIST_ID = "GgwefaUJHTyr34gsd";
+  private final static String ZURICH_TIME_ZONE = "Europe/Zurich";
+  private final static String UTC_TIME_ZONE = "UTC";
+
+  private ScheduleRunner scheduleRunner;
+  private TasksClientAdapter tasksClientAdapter;
+  private List<ExtendedTask> extendedTasks;
+
+  @Before
+  public void setUp() throws IOException {
+    scheduleRunner = new ScheduleRunner();
+    extendedTasks = new ArrayList<>();
+    tasksClientAdapter = Mockito.mock(TasksClientAdapter.class);
+    Assume.assumeTrue("Ids and durations arrays have different length",
+        TASKS_IDS.size() == TASKS_DURATIONS_IN_MINUTES.size());
+    Iterator<String> idsIterator = TASKS_IDS.iterator();
+    Iterator<String> durationsIterator = TASKS_DURATIONS_IN_MINUTES.iterator();
+    while (idsIterator.hasNext() && durationsIterator.hasNext()) {
+      String taskId = idsIterator.next();
+      Task task = new Task();
+      task.setId(taskId);
+      Mockito.when(tasksClientAdapter.getTask(TASKS_LIST_ID, taskId)).thenReturn(task);
+      extendedTasks.add(
+          new ExtendedTask(task, minsToMillis(durationsIterator.next()), TASKS_LIST_ID));
+    }
+    // The asynchronous fetch of a task delegates to the stubbed synchronous one
+    Mockito.when(tasksClientAdapter.getTaskAsync(anyString(), anyString())).thenAnswer(
+        invocation -> ApiExecutors.supplyAsync(
+            () -> tasksClientAdapter.getTask(invocation.getArgument(0), invocation.getArgument(1)),
+            Runnable::run));
+    // Answers 404 whenever the tasks list id is not valid
+    Mockito.when(tasksClientAdapter.getTask(not(eq(TASKS_LIST_ID)), anyString()))
+        .thenThrow(notFound());
+    // Answers 404 whenever the task id is not valid
+    Mockito.when(
+        tasksClientAdapter.getTask(anyString(), argThat((taskId) -> !TASKS_IDS.contains(taskId))))
+        .thenThrow(notFound());
+  }
+
+  private static GoogleJsonResponseException notFound() {
+    return new GoogleJsonResponseException(
+        new HttpResponseException.Builder(HttpStatusCodes.STATUS_CODE_NOT_FOUND, "Not Found", new HttpHeaders()),
+        null);
+  }
+
+  /**
+   * Selects the tasks as the form parameters do, and fetches them.
+   */
+  private List<ExtendedTask> getSelectedTasksExtended(
+      String[] tasksIds, String[] tasksDurations, String[] tasksListIds, String defaultTasksListId)
+      throws InvalidRequestException {
+    return scheduleRunner.getSelectedTasksExtendedAsync(
+        ScheduleServletHelper.getSelectedTasks(tasksIds, tasksDurations, tasksListIds), defaultTasksListId,
+        tasksClientAdapter).join();
+  }
+
+  @Test
+  public void getSelectedTasksExtended_emptyIds() throws InvalidRequestException {
+    String[] tasksIds = new String[0];
+    String[] tasksDurations = new String[0];
+
+    List<ExtendedTask> expectedExtendedTasks = Collections.emptyList();
+    List<ExtendedTask> actualExtendedTasks = getSelectedTasksExtended(
+        tasksIds, tasksDurations, null, TASKS_LIST_ID);
+
+    Assert.assertEquals(expectedExtendedTasks, actualExtendedTasks);
+  }
+
+  @Test
+  public void getSelectedTasksExtended_allExistingTasks() throws InvalidRequestException {
+    String[] tasksIds = new String[TASKS_IDS.size()];
+    TASKS_IDS.toArray(tasksIds);
+    String[] tasksDurations = new String[TASKS_DURATIONS_IN_MINUTES.size()];
+    TASKS_DURATIONS_IN_MINUTES.toArray(tasksDurations);
+
+    List<ExtendedTask> expectedExtendedTasks = new ArrayList<>(extendedTasks);
+    List<ExtendedTask> actualExtendedTasks = getSelectedTasksExtended(
+        tasksIds, tasksDurations, null, TASKS_LIST_ID);
+
+    Assert.assertEquals(expectedExtendedTasks, actualExtendedTasks);
+  }
+
+  @Test
+  public void getSelectedTasksExtended_someNonExistingTasks() throws InvalidRequestException {
+    String[] tasksIds = new String[TASKS_IDS.size() + 2];
+    String[] tasksDurations = new String[TASKS_DURATIONS_IN_MINUTES.size() + 2];
+    int index = 0;
+    tasksDurations[index] = "30";
+    tasksIds[index++] = "0";
+    Iterator<String> idsIterator = TASKS_IDS.iterator();
+    Iterator<String> durationsIterator = TASKS_DURATIONS_IN_MINUTES.iterator();
+    while (idsIterator.hasNext() && durationsIterator.hasNext()) {
+      tasksDurations[index] = durationsIterator.next();
+      tasksIds[index++] = idsIterator.next();
+    }
+    tasksDurations[index] = "180";
+    tasksIds[index] = "qaz";
+
+    List<ExtendedTask> expectedExtendedTasks = new ArrayList<>(extendedTasks);
+    List<ExtendedTask> actualExtendedTasks = getSelectedTasksExtended(
+        tasksIds, tasksDurations, null, TASKS_LIST_ID);
+
+    Assert.assertEquals(expectedExtendedTasks, actualExtendedTasks);
+  }
+
+  @Test
+  public void getSelectedTasksExtended_wrongTasksListId() throws InvalidRequestException {
+    String[] tasksIds = new String[TASKS_IDS.size()];
+    TASKS_IDS.toArray(tasksIds);
+    String[] tasksDurations = new String[TASKS_DURATIONS_IN_MINUTES.size()];
+    TASKS_DURATIONS_IN_MINUTES.toArray(tasksDurations);
+
+    List<ExtendedTask> expectedExtendedTasks = Collections.emptyList();
+    List<ExtendedTask> actualExtendedTasks = getSelectedTasksExtended(
+        tasksIds, tasksDurations, null, TASKS_LIST_ID + "QwErTy");
+
+    Assert.assertEquals(expectedExtendedTasks, actualExtendedTasks);
+  }
+
+  @Test
+  public void getSelectedTasksExtended_otherFailureIsPropagated() throws IOException, InvalidRequestException {
+    Mockito.when(tasksClientAdapter.getTask(TASKS_LIST_ID, "1")).thenThrow(new IOException("Backend error"));
+
+    try {
+      getSelectedTasksExtended(new String[] {"1", "2"}, new String[] {"30", "60"}, null, TASKS_LIST_ID);
+      Assert.fail("A failure other than a missing task should fail the fetch");
+    } catch (CompletionException exception) {
+      Assert.assertEquals("Backend error", exception.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void getSelectedTasksExtended_tasksOfDifferentLists() throws IOException, InvalidRequestException {
+    String otherTasksListId = "OtherList";
+    Task otherTask = new Task();
+    otherTask.setId("other");
+    Mockito.doReturn(otherTask).when(tasksClientAdapter).getTask(otherTasksListId, "other");
+    String[] tasksIds = {"1", "other"};
+    String[] tasksDurations = {"30", "60"};
+    String[] tasksListIds = {TASKS_LIST_ID, otherTasksListId};
+
+    List<ExtendedTask> expectedExtendedTasks = ImmutableList.of(
+        extendedTasks.get(0),
+        new ExtendedTask(otherTask, minsToMillis("60"), otherTasksListId));
+    List<ExtendedTask> actualExtendedTasks = getSelectedTasksExtended(
+        tasksIds, tasksDurations, tasksListIds, null);
+
+    Assert.assertEquals(expectedExtendedTasks, actualExtendedTasks);
+  }
+
+  @Test
+  public void createEventFromExtendedTask_withoutDescription() {
+    LocalDate day = LocalDate.of(2020, 11, 9);
+    ExtendedTask task = createDefaultDurationTaskWithDue(
+        createDateTime(day, 11, 30, ZURICH_TIME_ZONE)
+    );
+    String title = "Task without description";
+    task.getTask().setTitle(title);
+
+    Event expectedEvent = createEventWithSummary(
+        createDateTime(day, 11, 30, ZURICH_TIME_ZONE),
+        createDateTime(day, 12, 0, ZURICH_TIME_ZONE),
+        ZURICH_TIME_ZONE, title
+    );
+    expectedEvent.setVisibility(CalendarClientHelper.PRIVATE_VISIBILITY);
+    Event actualEvent = scheduleRunner.createEventFromExtendedTask(task, ZURICH_TIME_ZONE);
+
+    Assert.assertEquals(expectedEvent, actualEvent);
+  }
+
+  @Test
+  public void createEventFromExtendedTask_withDescription() {
+    LocalDate day = LocalDate.of(2022, 4, 9);
+    ExtendedTask task = createDefaultDurationTaskWithDue(
+        createDateTime(day, 15, 0, UTC_TIME_ZONE)
+    );
+    String title = "Task with description";
+    task.getTask().setTitle(title);
+    String description = "Description of the task";
+    task.getTask().setNotes(description);
+
+    Event expectedEvent = createPrivateEventWithSummaryAndDescription(
+        createDateTime(day, 15, 0, UTC_TIME_ZONE),
+        createDateTime(day, 15, 30, UTC_TIME_ZONE),
+        UTC_TIME_ZONE, title, description
+    );
+    Event actualEvent = scheduleRunner.createEventFromExtendedTask(task, UTC_TIME_ZONE);
+
+    Assert.assertEquals(expectedEvent, actualEvent);
+  }
+
+  @Test
+  public void createEventFromExtendedTask_duration15mins() {
+    LocalDate day = LocalDate.of(2023, 6, 12);
+    ExtendedTask task = createCustomDurationTaskWithDue(
+        createDateTime(day, 18, 0, UTC_TIME_ZONE),
+        TimeUnit.MINUTES.toMillis(15)
+    );
+    String title = "Task 15 mins";
+    task.getTask().setTitle(title);
+    String description = "Task with a duration of 15 minutes";
+    task.getTask().setNotes(description);
+
+    Event expectedEvent = createPrivateEventWithSummaryAndDescription(
+        createDateTime(day, 18, 0, UTC_TIME_ZONE),
+        createDateTime(day, 18, 15, UTC_TIME_ZONE),
+        UTC_TIME_ZONE, title, description
+    );
+    Event actualEvent = scheduleRunner.createEventFromExtendedTask(task, UTC_TIME_ZONE);
+
+    Assert.assertEquals(expectedEvent, actualEvent);
+  }
+
+  @Test
+  public void createEventFromExtendedTask_duration1hr() {
+    LocalDate day = LocalDate.of(2025, 2, 22);
+    ExtendedTask task = createCustomDurationTaskWithDue(
+        createDateTime(day, 12, 0, ZURICH_TIME_ZONE),
+        TimeUnit.HOURS.toMillis(1)
+    );
+    String title = "Task 1 hr";
+    task.getTask().setTitle(title);
+    String description = "Task with a duration of 1 hour";
+    task.getTask().setNotes(description);
+
+    Event expectedEvent = createPrivateEventWithSummaryAndDescription(
+        createDateTime(day, 12, 0, ZURICH_TIME_ZONE),
+        createDateTime(day, 13, 0, ZURICH_TIME_ZONE),
+        ZURICH_TIME_ZONE, title, description
+    );
+    Event actualEvent = scheduleRunner.createEventFromExtendedTask(task, ZURICH_TIME_ZONE);
+
+    Assert.assertEquals(expectedEvent, actualEvent);
+  }
+
+  @Test
+  public void createEventFromExtendedTask_duration1hr30mins() {
+    LocalDate day = LocalDate.of(2026, 11, 2);
+    ExtendedTask task = createCustomDurationTaskWithDue(
+        createDateTime(day, 8, 0, UTC_TIME_ZONE),
+        TimeUnit.HOURS.toMillis(1) + TimeUnit.MINUTES.toMillis(30)
+    );
+    String title = "Task 1.5 hrs";
+    task.getTask().setTitle(title);
+    String description = "Task with a duration of 1 hour and 30 minutes";
+    task.getTask().setNotes(description);
+
+    Event expectedEvent = createPrivateEventWithSummaryAndDescription(
+        createDateTime(day, 8, 0, UTC_TIME_ZONE),
+        createDateTime(day, 9, 30, UTC_TIME_ZONE),
+        UTC_TIME_ZONE, title, description
+    );
+    Event actualEvent = scheduleRunner.createEventFromExtendedTask(task, UTC_TIME_ZONE);
+
+    Assert.assertEquals(expectedEvent, actualEvent);
+  }
+
+  @Test
+  public void getDateRange_validDates() {
+    DateRange dateRange = scheduleRunner.getDateRange("2020-11-09", "2020-11-13", ZURICH_TIME_ZONE);
+
+    Assert.assertEquals(LocalDate.of(2020, 11, 9), dateRange.getStartDate());
+    Assert.assertEquals(LocalDate.of(2020, 11, 13), dateRange.getEndDate());
+  }
+
+  @Test
+  public void getDateRange_missingDatesIsTomorrow() {
+    LocalDate tomorrow = LocalDate.now(ZoneId.of(UTC_TIME_ZONE)).plusDays(1);
+
+    DateRange dateRange = scheduleRunner.getDateRange(null, "2020-11-13", UTC_TIME_ZONE);
+
+    Assert.assertEquals(tomorrow, dateRange.getStartDate());
+    Assert.assertEquals(tomorrow, dateRange.getEndDate());
+  }
+
+  private ScheduleInputs getCachedInputs() {
+    DateRange dateRange = new DateRange(LocalDate.parse("2020-08-20"), LocalDate.parse("2020-08-22"));
+    return new ScheduleInputs(extendedTasks, UTC_TIME_ZONE, dateRange, Collections.emptyList());
+  }
+
+  private static ScheduleRequest getScheduleRequest(
+      String[] tasksIds, String[] tasksDurations, String startDate, String endDate) throws InvalidRequestException {
+    String[] tasksListIds = new String[tasksIds.length];
+    Arrays.fill(tasksListIds, TASKS_LIST_ID);
+    return new ScheduleRequest(ScheduleServletHelper.getSelectedTasks(tasksIds, tasksDurations, tasksListIds),
+        startDate, endDate, new WorkingHours(9, 0, 18, 0));
+  }
+
+  @Test
+  public void getSelectedTasks_durationOutOfRange() {
+    for (String duration : new String[] {"0", "1441", "-30", "99999999999", "thirty"}) {
+      try {
+        ScheduleServletHelper.getSelectedTasks(new String[] {"1"}, new String[] {duration}, null);
+        Assert.fail("The duration should be rejected: " + duration);
+      } catch (InvalidRequestException expected) {
+      }
+    }
+  }
+
+  @Test
+  public void reuseInputs_requestedDurations() throws InvalidRequestException {
+    ScheduleRequest scheduleRequest = getScheduleRequest(
+        new String[] {"1", "abcd"}, new String[] {"15", "45"}, "2020-08-21", "2020-08-22");
+
+    ScheduleInputs inputs = scheduleRunner.reuseInputs(getCachedInputs(), scheduleRequest);
+
+    Assert.assertEquals(2, inputs.getTasks().size());
+    Assert.assertEquals("1", inputs.getTasks().get(0).getId());
+    Assert.assertEquals(minsToMillis("15"), inputs.getTasks().get(0).getDuration());
+    Assert.assertEquals("abcd", inputs.getTasks().get(1).getId());
+    Assert.assertEquals(minsToMillis("45"), inputs.getTasks().get(1).getDuration());
+    Assert.assertEquals(LocalDate.parse("2020-08-21"), inputs.getDateRange().getStartDate());
+  }
+
+  @Test
+  public void reuseInputs_rangeNotCovered() throws InvalidRequestException {
+    ScheduleInputs inputs = scheduleRunner.reuseInputs(getCachedInputs(),
+        getScheduleRequest(new String[] {"1"}, new String[] {"30"}, "2020-08-21", "2020-08-23"));
+
+    Assert.assertNull(inputs);
+  }
+
+  @Test
+  public void reuseInputs_taskNotCached() throws InvalidRequestException {
+    ScheduleInputs inputs = scheduleRunner.reuseInputs(getCachedInputs(),
+        getScheduleRequest(new String[] {"1", "unknown"}, new String[] {"30", "30"}, "2020-08-21", "2020-08-21"));
+
+    Assert.assertNull(inputs);
+  }
+
+  @Test
+  public void scheduleAsync_noTimeLeftToSave() throws IOException, InvalidRequestException {
+    CalendarClientAdapter calendarClientAdapter = Mockito.mock(CalendarClientAdapter.class);
+    Mockito.when(calendarClientAdapter.getPrimaryCalendarTimeZoneAsync())
+        .thenReturn(CompletableFuture.completedFuture(UTC_TIME_ZONE));
+    Mockito.when(calendarClientAdapter.getBusyIntervalsInTimerangeAsync(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+
+    try {
+      scheduleRunner.scheduleAsync(
+          getScheduleRequest(new String[] {"1"}, new String[] {"60"}, "2020-08-20", "2020-08-20"), null,
+          tasksClientAdapter, calendarClientAdapter, Deadline.after(-1), ScheduleRunner.ProgressListener.NONE)
+          .join();
+      Assert.fail("The scheduling should fail");
+    } catch (CompletionException expected) {
+      Assert.assertTrue(expected.getCause() instanceof DeadlineExceededException);
+    }
+    Mockito.verify(tasksClientAdapter, Mockito.never()).patchTaskDue(anyString(), anyString(), anyString());
+    Mockito.verify(calendarClientAdapter, Mockito.never()).insertEventToPrimary(any(Event.class));
+  }
+
+  @Test
+  public void scheduleAsync_cachedInputsAreReadAgain() throws IOException, InvalidRequestException {
+    String userId = "scheduleUser";
+    ScheduleInputsCache.getInstance().put(userId, getCachedInputs());
+    CalendarClientAdapter calendarClientAdapter = Mockito.mock(CalendarClientAdapter.class);
+    Mockito.when(calendarClientAdapter.getPrimaryCalendarTimeZoneAsync())
+        .thenReturn(CompletableFuture.completedFuture(UTC_TIME_ZONE));
+    Mockito.when(calendarClientAdapter.getBusyIntervalsInTimerangeAsync(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+
+    ScheduleMessage message = scheduleRunner.scheduleAsync(
+        getScheduleRequest(new String[] {"1"}, new String[] {"60"}, "2020-08-20", "2020-08-20"), userId,
+        tasksClientAdapter, calendarClientAdapter, Deadline.none(), ScheduleRunner.ProgressListener.NONE)
+        .join();
+
+    Assert.assertEquals(Collections.singletonList("1"), message.getCommittedTaskIds());
+    Mockito.verify(tasksClientAdapter).getTaskAsync(TASKS_LIST_ID, "1");
+    Mockito.verify(calendarClientAdapter).getBusyIntervalsInTimerangeAsync(any(), any());
+    Mockito.verify(tasksClientAdapter).patchTaskDue(TASKS_LIST_ID, "1", "2020-08-20T09:00:00.000Z");
+    Assert.assertNull(ScheduleInputsCache.getInstance().get(userId));
+  }
+
+  private ExtendedTask getScheduledTask() {
+    ExtendedTask scheduledTask = extendedTasks.get(0);
+    scheduledTask.getTask().setDue("2020-08-20T09:00:00.000Z");
+    return scheduledTask;
+  }
+
+  @Test
+  public void saveScheduledTaskAsync_committed() throws IOException {
+    CalendarClientAdapter calendarClientAdapter = Mockito.mock(CalendarClientAdapter.class);
+
+    ScheduleRunner.SaveStatus status = scheduleRunner.saveScheduledTaskAsync(getScheduledTask(), UTC_TIME_ZONE,
+        tasksClientAdapter, calendarClientAdapter, Deadline.none(), 0, () -> false).join();
+
+    Assert.assertEquals(ScheduleRunner.SaveStatus.COMMITTED, status);
+    Mockito.verify(tasksClientAdapter).patchTaskDue(TASKS_LIST_ID, extendedTasks.get(0).getId(),
+        "2020-08-20T09:00:00.000Z");
+    Mockito.verify(calendarClientAdapter).insertEventToPrimary(any(Event.class));
+  }
+
+  @Test
+  public void saveScheduledTaskAsync_eventNotInserted() throws IOException {
+    CalendarClientAdapter calendarClientAdapter = Mockito.mock(CalendarClientAdapter.class);
+    Mockito.doThrow(new IOException()).when(calendarClientAdapter).insertEventToPrimary(any(Event.class));
+
+    ScheduleRunner.SaveStatus status = scheduleRunner.saveScheduledTaskAsync(getScheduledTask(), UTC_TIME_ZONE,
+        tasksClientAdapter, calendarClientAdapter, Deadline.none(), 0, () -> false).join();
+
+    Assert.assertEquals(ScheduleRunner.SaveStatus.INCOMPLETE, status);
+  }
+
+  @Test
+  public void saveScheduledTaskAsync_notEnoughTimeLeft() throws IOException {
+    CalendarClientAdapter calendarClientAdapter = Mockito.mock(CalendarClientAdapter.class);
+
+    ScheduleRunner.SaveStatus status = scheduleRunner.saveScheduledTaskAsync(getScheduledTask(), UTC_TIME_ZONE,
+        tasksClientAdapter, calendarClientAdapter, Deadline.after(1000), 5000, () -> false).join();
+
+    Assert.assertEquals(ScheduleRunner.SaveStatus.SKIPPED, status);
+    Mockito.verify(tasksClientAdapter, Mockito.never()).patchTaskDue(anyString(), anyString(), anyString());
+    Mockito.verifyNoInteractions(calendarClientAdapter);
+  }
+
+  @Test
+  public void saveScheduledTaskAsync_cancelledAfterTaskSaved() throws IOException {
+    CalendarClientAdapter calendarClientAdapter = Mockito.mock(CalendarClientAdapter.class);
+    AtomicBoolean cancelled = new AtomicBoolean();
+    // The request times out while the task is saved
+    Mockito.doAnswer(invocation -> {
+      cancelled.set(true);
+      return null;
+    }).when(tasksClientAdapter).patchTaskDue(anyString(), anyString(), anyString());
+
+    ScheduleRunner.SaveStatus status = scheduleRunner.saveScheduledTaskAsync(getScheduledTask(), UTC_TIME_ZONE,
+        tasksClientAdapter, calendarClientAdapter, Deadline.none(), 0, cancelled::get).join();
+
+    Assert.assertEquals(ScheduleRunner.SaveStatus.INCOMPLETE, status);
+    Mockito.verifyNoInteractions(calendarClientAdapter);
+  }
+}
@@ -0,0 +1,47 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public class WarmupServletTest {
+
+  @Test
+  public void warmupSucceedsWithoutUserOrApiCalls() throws IOException {
+    HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+    StringWriter responseBody = new StringWriter();
+    Mockito.when(response.getWriter()).thenReturn(new PrintWriter(responseBody, true));
+
+    new WarmupServlet().doGet(Mockito.mock(HttpServletRequest.class), response);
+
+    Assert.assertEquals("OK", responseBody.toString().trim());
+  }
+
+  @Test
+  public void runSteps_noStepFails() {
+    Assert.assertEquals(Collections.emptyList(), WarmupServlet.runSteps());
+  }
+}